@@ -0,0 +1,66 @@
+package com.lilium.snake.benchmark;
+
+import com.lilium.snake.network.Action;
+import com.lilium.snake.network.ArenaEnvironment;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of one arena tick (move, collisions, rewards, respawns and the batched observation) for different number
+ * of snakes on one board. Actions are random and drawn up front, so only the arena is measured. Cost per snake should
+ * stay about the same as the arena gets crowded, e.g. gradle jmh -PjmhArgs="ArenaBenchmark".
+ *
+ * @author mirza
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ArenaBenchmark {
+    private static final int NUMBER_OF_CELLS = 300;
+    private static final int NUMBER_OF_ACTION_ROUNDS = 64;
+
+    @Param({"10", "100", "1000"})
+    private int numberOfSnakes;
+
+    private ArenaEnvironment environment;
+    private int[][] actions;
+    private int round;
+
+    @Setup
+    public void setUp() {
+        environment = new ArenaEnvironment(NUMBER_OF_CELLS, numberOfSnakes, numberOfSnakes, 123L);
+
+        final SplittableRandom random = new SplittableRandom(123L);
+        actions = new int[NUMBER_OF_ACTION_ROUNDS][numberOfSnakes];
+        for (final int[] roundActions : actions) {
+            for (int i = 0; i < numberOfSnakes; i++) {
+                // Mostly keep going, a snake turning every tick dies within a few moves
+                roundActions[i] = random.nextInt(8) == 0
+                        ? random.nextInt(Action.values().length)
+                        : Action.MOVE_RIGHT.ordinal();
+            }
+        }
+    }
+
+    @Benchmark
+    public INDArray step() {
+        round = round + 1 == NUMBER_OF_ACTION_ROUNDS ? 0 : round + 1;
+        return environment.step(actions[round]);
+    }
+}
@@ -0,0 +1,76 @@
+package com.lilium.snake.benchmark;
+
+import com.lilium.snake.game.GameEngine;
+import com.lilium.snake.network.util.NetworkUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of how a game scales with the size of its board. A step (move, reward and extended observation) is
+ * measured with a snake of fixed length following {@link SnakeCycle}, so only the board grows. Reset clears the whole
+ * board. Memory per game is the gc.alloc.rate.norm of newGame, as everything a game allocates is kept for its whole
+ * life, e.g. gradle jmh -PjmhArgs="BoardSizeBenchmark".
+ *
+ * @author mirza
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+// Extended features scan the line masks of the board, basic ones only look at the cells next to the head
+@Fork(value = 1, jvmArgsAppend = "-Dsnake.featureSet=EXTENDED")
+public class BoardSizeBenchmark {
+    private static final int SNAKE_LENGTH = 50;
+
+    @Param({"10", "30", "100", "300", "1000"})
+    private int numberOfCells;
+
+    private final double[] observation = new double[NetworkUtil.NUMBER_OF_INPUTS];
+    private SnakeCycle cycle;
+    private GameEngine game;
+    private GameEngine resetGame;
+    private int headIndex;
+
+    @Setup
+    public void setUp() {
+        cycle = new SnakeCycle(numberOfCells);
+        game = new GameEngine(numberOfCells, new SplittableRandom(123L));
+        headIndex = cycle.placeSnake(game, SNAKE_LENGTH);
+        resetGame = new GameEngine(numberOfCells, new SplittableRandom(123L));
+    }
+
+    @Benchmark
+    public double step() {
+        game.changeDirection(cycle.getAction(headIndex));
+        game.move();
+        headIndex = cycle.getNextIndex(headIndex);
+
+        final double reward = game.calculateRewardForActionToTake(cycle.getAction(headIndex));
+        game.buildStateObservation(observation);
+        return reward + observation[0];
+    }
+
+    @Benchmark
+    public int reset() {
+        resetGame.reset();
+        return resetGame.getFoodCell();
+    }
+
+    @Benchmark
+    public GameEngine newGame() {
+        return new GameEngine(numberOfCells, new SplittableRandom(123L));
+    }
+}
@@ -0,0 +1,89 @@
+package com.lilium.snake.benchmark;
+
+import com.lilium.snake.network.util.NetworkUtil;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark comparing network data types: a training step (fit of a replay batch) and inference (forward pass of a
+ * batch of observations). Both report time per observation.
+ *
+ * @author mirza
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DataTypeBenchmark {
+    private static final int TRAINING_BATCH_SIZE = 128;
+    private static final int INFERENCE_BATCH_SIZE = 256;
+
+    @Param({"FLOAT", "DOUBLE", "HALF"})
+    public DataType dataType;
+
+    private MultiLayerNetwork network;
+    private INDArray trainingObservations;
+    private INDArray trainingLabels;
+    private INDArray inferenceObservations;
+
+    @Setup
+    public void setUp() {
+        network = (MultiLayerNetwork) NetworkUtil.buildDQNFactory(dataType)
+                .buildDQN(new int[]{NetworkUtil.NUMBER_OF_INPUTS}, 4)
+                .getNeuralNetworks()[0];
+        network.setListeners();
+
+        // Observation values are -1, 0 or 1, labels are small Q-values
+        final SplittableRandom random = new SplittableRandom(123L);
+        trainingObservations = createObservations(random, TRAINING_BATCH_SIZE);
+        inferenceObservations = createObservations(random, INFERENCE_BATCH_SIZE);
+        trainingLabels = Nd4j.create(dataType, TRAINING_BATCH_SIZE, 4);
+        for (int i = 0; i < TRAINING_BATCH_SIZE; i++) {
+            for (int j = 0; j < 4; j++) {
+                trainingLabels.putScalar(i, j, random.nextDouble() - 0.5);
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TRAINING_BATCH_SIZE)
+    public void training() {
+        network.fit(trainingObservations, trainingLabels);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(INFERENCE_BATCH_SIZE)
+    public INDArray inference() {
+        return network.output(inferenceObservations, false);
+    }
+
+    private INDArray createObservations(final SplittableRandom random, final int numberOfObservations) {
+        final INDArray observations = Nd4j.create(dataType, numberOfObservations, NetworkUtil.NUMBER_OF_INPUTS);
+        for (int i = 0; i < numberOfObservations; i++) {
+            for (int j = 0; j < NetworkUtil.NUMBER_OF_INPUTS; j++) {
+                observations.putScalar(i, j, random.nextInt(3) - 1);
+            }
+        }
+
+        return observations;
+    }
+}
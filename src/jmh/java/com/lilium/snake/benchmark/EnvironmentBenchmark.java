@@ -0,0 +1,69 @@
+package com.lilium.snake.benchmark;
+
+import com.lilium.snake.game.GameEngine;
+import com.lilium.snake.network.Action;
+import com.lilium.snake.network.Environment;
+import com.lilium.snake.network.GameState;
+import org.deeplearning4j.gym.StepReply;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the environment used by the learners. Stepping is measured for different snake lengths, reset always
+ * starts a new game with the initial snake.
+ *
+ * @author mirza
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EnvironmentBenchmark {
+    @State(Scope.Thread)
+    public static class StepState {
+        @Param({"3", "50", "300", "800"})
+        private int snakeLength;
+
+        private Environment environment;
+        private int headIndex;
+
+        @Setup
+        public void setUp() {
+            final GameEngine game = new GameEngine(new SplittableRandom(123L));
+            environment = new Environment(game);
+            headIndex = SnakeCycle.DEFAULT.placeSnake(game, snakeLength);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ResetState {
+        private final Environment environment = new Environment(new GameEngine(new SplittableRandom(123L)));
+    }
+
+    @Benchmark
+    public StepReply<GameState> step(final StepState state) {
+        final Action action = SnakeCycle.DEFAULT.getAction(state.headIndex);
+        final StepReply<GameState> reply = state.environment.step(action.ordinal());
+        state.headIndex = SnakeCycle.DEFAULT.getNextIndex(state.headIndex);
+
+        return reply;
+    }
+
+    @Benchmark
+    public GameState reset(final ResetState state) {
+        return state.environment.reset();
+    }
+}
@@ -0,0 +1,65 @@
+package com.lilium.snake.benchmark;
+
+import com.lilium.snake.game.GameEngine;
+import com.lilium.snake.network.util.NetworkUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the game step path for different snake lengths. The snake follows {@link SnakeCycle} so it neither
+ * dies nor grows while measured.
+ *
+ * @author mirza
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameBenchmark {
+    @Param({"3", "50", "300", "800"})
+    private int snakeLength;
+
+    private final double[] observation = new double[NetworkUtil.NUMBER_OF_INPUTS];
+    private GameEngine game;
+    private int headIndex;
+
+    @Setup
+    public void setUp() {
+        game = new GameEngine(new SplittableRandom(123L));
+        headIndex = SnakeCycle.DEFAULT.placeSnake(game, snakeLength);
+    }
+
+    @Benchmark
+    public int move() {
+        game.changeDirection(SnakeCycle.DEFAULT.getAction(headIndex));
+        game.move();
+        headIndex = SnakeCycle.DEFAULT.getNextIndex(headIndex);
+
+        return game.getHeadCell();
+    }
+
+    @Benchmark
+    public double[] buildStateObservation() {
+        game.buildStateObservation(observation);
+        return observation;
+    }
+
+    @Benchmark
+    public double calculateRewardForActionToTake() {
+        return game.calculateRewardForActionToTake(SnakeCycle.DEFAULT.getAction(headIndex));
+    }
+}
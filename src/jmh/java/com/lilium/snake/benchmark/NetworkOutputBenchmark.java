@@ -0,0 +1,77 @@
+package com.lilium.snake.benchmark;
+
+import com.lilium.snake.network.util.NetworkUtil;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark comparing one forward pass per observation against one forward pass for a batch of observations on a
+ * loaded network. Both report time per observation. Network is read from the {@code network} system property.
+ *
+ * @author mirza
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NetworkOutputBenchmark {
+    private static final int BATCH_SIZE = 256;
+
+    private MultiLayerNetwork network;
+    private INDArray[] observations;
+    private INDArray batch;
+
+    @Setup
+    public void setUp() {
+        final String networkName = System.getProperty("network", "network-1624729771113.zip");
+        network = NetworkUtil.loadNetwork(networkName);
+        if (network == null) {
+            throw new IllegalStateException("Could not load network " + networkName);
+        }
+
+        // Observation values are -1, 0 or 1
+        final SplittableRandom random = new SplittableRandom(123L);
+        batch = Nd4j.create(NetworkUtil.DATA_TYPE, BATCH_SIZE, NetworkUtil.NUMBER_OF_INPUTS);
+        observations = new INDArray[BATCH_SIZE];
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            observations[i] = Nd4j.create(NetworkUtil.DATA_TYPE, 1, NetworkUtil.NUMBER_OF_INPUTS);
+            for (int j = 0; j < NetworkUtil.NUMBER_OF_INPUTS; j++) {
+                final double value = random.nextInt(3) - 1;
+                observations[i].putScalar(0, j, value);
+                batch.putScalar(i, j, value);
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void single(final Blackhole blackhole) {
+        for (final INDArray observation : observations) {
+            blackhole.consume(network.output(observation, false));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public INDArray batched() {
+        return network.output(batch, false);
+    }
+}
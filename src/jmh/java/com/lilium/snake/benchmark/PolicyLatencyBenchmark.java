@@ -0,0 +1,77 @@
+package com.lilium.snake.benchmark;
+
+import com.lilium.snake.network.policy.MlpPolicy;
+import com.lilium.snake.network.policy.NetworkPolicy;
+import com.lilium.snake.network.util.NetworkUtil;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the latency of selecting one action for one observation, through ND4J ({@link NetworkPolicy}) and
+ * through the plain Java forward pass ({@link MlpPolicy}) of the same network. Network is read from the
+ * {@code network} system property.
+ *
+ * @author mirza
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PolicyLatencyBenchmark {
+    private static final int NUMBER_OF_OBSERVATIONS = 256;
+
+    private NetworkPolicy networkPolicy;
+    private MlpPolicy mlpPolicy;
+    private double[][] observations;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        final String networkName = System.getProperty("network", "network-1624729771113.zip");
+        final MultiLayerNetwork network = NetworkUtil.loadNetwork(networkName);
+        if (network == null) {
+            throw new IllegalStateException("Could not load network " + networkName);
+        }
+
+        networkPolicy = new NetworkPolicy(network);
+        mlpPolicy = MlpPolicy.of(network);
+
+        // Observation values are -1, 0 or 1
+        final SplittableRandom random = new SplittableRandom(123L);
+        observations = new double[NUMBER_OF_OBSERVATIONS][NetworkUtil.NUMBER_OF_INPUTS];
+        for (final double[] observation : observations) {
+            for (int i = 0; i < observation.length; i++) {
+                observation[i] = random.nextInt(3) - 1;
+            }
+        }
+    }
+
+    @Benchmark
+    public int nd4j() {
+        return networkPolicy.selectAction(nextObservation());
+    }
+
+    @Benchmark
+    public int mlp() {
+        return mlpPolicy.selectAction(nextObservation());
+    }
+
+    private double[] nextObservation() {
+        index = index + 1 == NUMBER_OF_OBSERVATIONS ? 0 : index + 1;
+        return observations[index];
+    }
+}
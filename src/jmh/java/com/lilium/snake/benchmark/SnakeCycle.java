@@ -0,0 +1,125 @@
+package com.lilium.snake.benchmark;
+
+import com.lilium.snake.game.GameEngine;
+import com.lilium.snake.game.helper.Direction;
+import com.lilium.snake.game.util.GameUtil;
+import com.lilium.snake.game.util.PositionUtil;
+import com.lilium.snake.network.Action;
+
+/**
+ * Cycle through every cell of the board except the last row. A snake following it never dies and never reaches the
+ * food, which is placed on the last row, so its length stays the same for the whole benchmark.
+ *
+ * @author mirza
+ */
+final class SnakeCycle {
+    /**
+     * Cycle of the default board.
+     */
+    static final SnakeCycle DEFAULT = new SnakeCycle(GameUtil.DEFAULT_NUMBER_OF_CELLS);
+
+    private final int[] cells;
+    // Action moving the head from the cell at the same index to the next cell of the cycle
+    private final Action[] actions;
+    private final int foodCell;
+
+    /**
+     * @param numberOfCells Number of cells in one row or column of the board, has to be even.
+     */
+    SnakeCycle(final int numberOfCells) {
+        if (numberOfCells % 2 != 0) {
+            throw new IllegalArgumentException("Number of cells must be even but was " + numberOfCells);
+        }
+
+        this.cells = buildCells(numberOfCells);
+        this.actions = buildActions(cells);
+        this.foodCell = PositionUtil.toCell(0, numberOfCells - 1);
+    }
+
+    /**
+     * Put a snake of the given length onto the cycle.
+     *
+     * @param engine Game in which the snake is placed.
+     * @param snakeLength Length of the snake, at least 2.
+     * @return Returns index of the head cell in the cycle.
+     */
+    int placeSnake(final GameEngine engine, final int snakeLength) {
+        if (snakeLength < 2 || snakeLength > cells.length) {
+            throw new IllegalArgumentException("Snake length must be between 2 and " + cells.length);
+        }
+
+        final int headIndex = snakeLength - 1;
+        final int[] snakeCells = new int[snakeLength];
+        for (int i = 0; i < snakeLength; i++) {
+            snakeCells[i] = cells[headIndex - i];
+        }
+
+        engine.setState(snakeCells, getDirection(actions[headIndex - 1]), foodCell);
+        return headIndex;
+    }
+
+    Action getAction(final int index) {
+        return actions[index];
+    }
+
+    int getNextIndex(final int index) {
+        return index + 1 == cells.length ? 0 : index + 1;
+    }
+
+    private static int[] buildCells(final int numberOfCells) {
+        // All rows but the last one, e.g. 30 x 29 cells (one side is even so a cycle through all of them exists)
+        final int width = numberOfCells;
+        final int height = numberOfCells - 1;
+        final int[] cells = new int[width * height];
+        int index = 0;
+
+        // Go right along the first row
+        for (int x = 0; x < width; x++) {
+            cells[index++] = PositionUtil.toCell(x, 0);
+        }
+
+        // Go down and up through the columns from the last one to the second one, ending at the bottom
+        for (int x = width - 1; x >= 1; x--) {
+            final boolean down = (width - 1 - x) % 2 == 0;
+            for (int i = 1; i < height; i++) {
+                cells[index++] = PositionUtil.toCell(x, down ? i : height - i);
+            }
+        }
+
+        // Go up the first column back to the start
+        for (int y = height - 1; y >= 1; y--) {
+            cells[index++] = PositionUtil.toCell(0, y);
+        }
+
+        return cells;
+    }
+
+    private static Action[] buildActions(final int[] cells) {
+        final Action[] actions = new Action[cells.length];
+        for (int i = 0; i < cells.length; i++) {
+            final int cell = cells[i];
+            final int next = cells[i + 1 == cells.length ? 0 : i + 1];
+
+            if (PositionUtil.getCellX(next) > PositionUtil.getCellX(cell)) {
+                actions[i] = Action.MOVE_RIGHT;
+            } else if (PositionUtil.getCellX(next) < PositionUtil.getCellX(cell)) {
+                actions[i] = Action.MOVE_LEFT;
+            } else if (PositionUtil.getCellY(next) > PositionUtil.getCellY(cell)) {
+                actions[i] = Action.MOVE_DOWN;
+            } else {
+                actions[i] = Action.MOVE_UP;
+            }
+        }
+
+        return actions;
+    }
+
+    private static Direction getDirection(final Action action) {
+        return switch (action) {
+            case MOVE_UP -> Direction.UP;
+            case MOVE_RIGHT -> Direction.RIGHT;
+            case MOVE_DOWN -> Direction.DOWN;
+            case MOVE_LEFT -> Direction.LEFT;
+        };
+    }
+}
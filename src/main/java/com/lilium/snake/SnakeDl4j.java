@@ -1,27 +1,49 @@
 package com.lilium.snake;
 
+import com.lilium.snake.events.ForwardPassEvent;
 import com.lilium.snake.game.Game;
+import com.lilium.snake.game.GameEngine;
 import com.lilium.snake.network.Action;
 import com.lilium.snake.network.Environment;
+import com.lilium.snake.network.GameObservationSpace;
 import com.lilium.snake.network.GameState;
-import com.lilium.snake.network.util.GameStateUtil;
+import com.lilium.snake.network.PackedExperienceHandler;
+import com.lilium.snake.network.checkpoint.CheckpointListener;
+import com.lilium.snake.network.checkpoint.TrainingCheckpoint;
+import com.lilium.snake.network.metrics.MetricsReporter;
+import com.lilium.snake.network.metrics.TimedDQNFactory;
+import com.lilium.snake.network.metrics.TrainingMetrics;
+import com.lilium.snake.network.policy.MlpPolicy;
+import com.lilium.snake.network.policy.Policy;
+import com.lilium.snake.network.policy.PolicyTable;
 import com.lilium.snake.network.util.NetworkUtil;
+import jdk.jfr.EventType;
 import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.rl4j.learning.configuration.QLearningConfiguration;
 import org.deeplearning4j.rl4j.learning.sync.qlearning.discrete.QLearningDiscreteDense;
-import org.nd4j.linalg.api.ndarray.INDArray;
+import org.deeplearning4j.rl4j.network.dqn.IDQN;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.swing.*;
 import java.awt.*;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.SplittableRandom;
 
 public class SnakeDl4j extends JFrame {
     private static final Logger LOG = LoggerFactory.getLogger(SnakeDl4j.class);
-
-    private SnakeDl4j() {
-        final Game game = new Game();
-        add(game);
+    private static final EventType FORWARD_PASS_EVENT_TYPE = EventType.getEventType(ForwardPassEvent.class);
+    private static final long METRICS_INTERVAL_SECONDS = 10;
+    private static final int CHECKPOINT_STEPS = 2500;
+    private static final int NUMBER_OF_CHECKPOINTS = 3;
+    // Number of last epochs over which the average reward of a checkpoint is calculated
+    private static final int CHECKPOINT_REWARD_EPOCHS = 20;
+
+    private SnakeDl4j(final Path resumeFrom) {
+        final GameEngine game = new GameEngine(new SplittableRandom(NetworkUtil.SEED));
+        add(new Game(game));
         setResizable(false);
         pack();
 
@@ -31,26 +53,16 @@ public class SnakeDl4j extends JFrame {
 
         final Thread thread = new Thread(() -> {
             // Give a name to the network we are about to train
-            final String randomNetworkName = "network-" + System.currentTimeMillis() + ".zip";
-
-            // Create our training environment
-            final Environment mdp = new Environment(game);
-            final QLearningDiscreteDense<GameState> dql = new QLearningDiscreteDense<>(
-                    mdp,
-                    NetworkUtil.buildDQNFactory(),
-                    NetworkUtil.buildConfig()
-            );
-
-            // Start the training
-            dql.train();
-            mdp.close();
+            final long timestamp = System.currentTimeMillis();
+            final String randomNetworkName = "network-" + timestamp + ".zip";
 
-            // Save network
             try {
-                dql.getNeuralNet().save(randomNetworkName);
-            } catch (IOException e) {
+                train(game, resumeFrom, randomNetworkName, timestamp);
+            } catch (final IOException e) {
                 LOG.error(e.getMessage(), e);
+                return;
             }
+
             // Reset the game
             game.initializeGame();
 
@@ -61,19 +73,84 @@ public class SnakeDl4j extends JFrame {
         thread.start();
     }
 
-    private void evaluateNetwork(Game game, String randomNetworkName) {
-        final MultiLayerNetwork multiLayerNetwork = NetworkUtil.loadNetwork(randomNetworkName);
+    private static void train(final GameEngine game,
+                              final Path resumeFrom,
+                              final String networkName,
+                              final long timestamp) throws IOException {
+        // Create our training environment, recording throughput metrics of the environment and the network
+        final TrainingMetrics metrics = new TrainingMetrics();
+        final Environment mdp = new Environment(game);
+        mdp.setMetrics(metrics);
+        final QLearningConfiguration configuration = NetworkUtil.buildConfig();
+        final TimedDQNFactory dqnFactory = new TimedDQNFactory(NetworkUtil.buildDQNFactory(), metrics);
+        final IDQN dqn = resumeFrom != null
+                ? dqnFactory.buildDQN(CheckpointListener.loadNetwork(resumeFrom))
+                : dqnFactory.buildDQN(mdp.getObservationSpace().getShape(), mdp.getActionSpace().getSize());
+        final QLearningDiscreteDense<GameState> dql = new QLearningDiscreteDense<>(mdp, dqn, configuration);
+
+        // Keep the replay memory in packed arrays instead of transition objects, only possible for -1/0/1 features
+        PackedExperienceHandler experienceHandler = null;
+        if (NetworkUtil.FEATURE_SET.isTernary()) {
+            experienceHandler = new PackedExperienceHandler(
+                    configuration.getExpRepMaxSize(),
+                    configuration.getBatchSize(),
+                    NetworkUtil.NUMBER_OF_INPUTS,
+                    NetworkUtil.SEED
+            );
+            dql.setExperienceHandler(experienceHandler);
+            metrics.setReplayMemorySize(experienceHandler::size);
+        }
+
+        // Start the training, metrics are available over JMX and logged to a CSV file every few seconds
+        metrics.registerMBean();
+        try (MetricsReporter reporter = new MetricsReporter(
+                metrics,
+                METRICS_INTERVAL_SECONDS,
+                Paths.get("training-metrics-" + timestamp + ".csv"));
+             CheckpointListener checkpointListener = new CheckpointListener(
+                     dql,
+                     experienceHandler,
+                     Paths.get("checkpoints-" + timestamp),
+                     CHECKPOINT_STEPS,
+                     NUMBER_OF_CHECKPOINTS,
+                     CHECKPOINT_REWARD_EPOCHS)) {
+            // Continue with the step count (and therefore epsilon) and replay memory of the checkpoint
+            final TrainingCheckpoint checkpoint = resumeFrom != null
+                    ? CheckpointListener.loadTrainingCheckpoint(resumeFrom)
+                    : null;
+            if (checkpoint != null) {
+                checkpointListener.restore(resumeFrom, checkpoint);
+            }
+
+            dql.addListener(checkpointListener);
+            reporter.start();
+            dql.train();
+        } finally {
+            metrics.unregisterMBean();
+            mdp.close();
+        }
+
+        // Save network
+        dql.getNeuralNet().save(networkName);
+    }
+
+    private void evaluateNetwork(GameEngine game, String randomNetworkName) {
+        // Network is tiny, a forward pass in plain Java is much faster than going through ND4J for every decision. If
+        // the observations are finite the network is compiled into a lookup table, which is faster still.
+        final MultiLayerNetwork network = NetworkUtil.loadNetwork(randomNetworkName);
+        final Policy policy = new GameObservationSpace().isFinite()
+                ? PolicyTable.compile(network)
+                : MlpPolicy.of(network);
+        final double[] observation = new double[NetworkUtil.NUMBER_OF_INPUTS];
         int highscore = 0;
         for (int i = 0; i < 1000; i++) {
             int score = 0;
             while (game.isOngoing()) {
                 try {
-                    final GameState state = game.buildStateObservation();
-                    final INDArray output = multiLayerNetwork.output(state.getMatrix(), false);
-                    double[] data = output.data().asDouble();
-                    int maxValueIndex = GameStateUtil.getMaxValueIndex(data);
+                    game.buildStateObservation(observation);
+                    final int action = selectAction(policy, observation);
 
-                    game.changeDirection(Action.getActionByIndex(maxValueIndex));
+                    game.changeDirection(Action.getActionByIndex(action));
                     game.move();
                     score = game.getScore();
 
@@ -97,9 +174,27 @@ public class SnakeDl4j extends JFrame {
         LOG.info("Finished evaluation of the network, highscore was '{}'", highscore);
     }
 
+    private static int selectAction(final Policy policy, final double[] observation) {
+        if (!FORWARD_PASS_EVENT_TYPE.isEnabled()) {
+            return policy.selectAction(observation);
+        }
+
+        final ForwardPassEvent event = new ForwardPassEvent();
+        event.begin();
+        final int action = policy.selectAction(observation);
+        event.end();
+        if (event.shouldCommit()) {
+            event.batchSize = 1;
+            event.commit();
+        }
+
+        return action;
+    }
+
     public static void main(String[] args) {
         EventQueue.invokeLater(() -> {
-            JFrame ex = new SnakeDl4j();
+            // Optional checkpoint from which the training is resumed
+            JFrame ex = new SnakeDl4j(args.length > 0 ? Paths.get(args[0]) : null);
             ex.setVisible(true);
         });
     }
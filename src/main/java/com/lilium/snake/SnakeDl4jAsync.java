@@ -0,0 +1,105 @@
+package com.lilium.snake;
+
+import com.lilium.snake.network.Environment;
+import com.lilium.snake.network.GameState;
+import com.lilium.snake.network.TargetScoreListener;
+import com.lilium.snake.network.metrics.MetricsReporter;
+import com.lilium.snake.network.metrics.TimedDQNFactory;
+import com.lilium.snake.network.metrics.TrainingMetrics;
+import com.lilium.snake.network.util.NetworkUtil;
+import org.deeplearning4j.rl4j.learning.async.nstep.discrete.AsyncNStepQLearningDiscreteDense;
+import org.deeplearning4j.rl4j.learning.configuration.AsyncQLearningConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * Headless training entry point using async n-step Q-learning. Every thread trains on its own game, by default a
+ * single one. Training stops once the average score of the last episodes reaches the target score, wall-clock time
+ * needed for that is logged so that runs with different number of threads can be compared.
+ * <p>
+ * Workers call the native ND4J code concurrently. Its thread pool is sized by {@code OMP_NUM_THREADS} (the number of
+ * cores if not set) and when the workers ask for more threads than it has, libnd4j crashes the JVM with a SIGSEGV in
+ * {@code samediff::Ticket::acquiredThreads}. Several threads are therefore only started if {@code OMP_NUM_THREADS} is
+ * at least twice the number of workers, e.g. {@code OMP_NUM_THREADS=8} for 4 workers.
+ * <p>
+ * Usage: {@code SnakeDl4jAsync [numberOfThreads] [targetScore]}
+ *
+ * @author mirza
+ */
+public final class SnakeDl4jAsync {
+    private static final Logger LOG = LoggerFactory.getLogger(SnakeDl4jAsync.class);
+
+    // Number of last finished episodes over which the average score is calculated
+    private static final int SCORE_WINDOW = 100;
+    private static final long METRICS_INTERVAL_SECONDS = 10;
+    // Size of the native thread pool of libnd4j
+    private static final String NATIVE_THREADS_VARIABLE = "OMP_NUM_THREADS";
+
+    private SnakeDl4jAsync() {}
+
+    public static void main(String[] args) {
+        final int numberOfThreads = args.length > 0 ? Integer.parseInt(args[0]) : 1;
+        final double targetScore = args.length > 1 ? Double.parseDouble(args[1]) : 10;
+
+        final String nativeThreads = System.getenv(NATIVE_THREADS_VARIABLE);
+        if (numberOfThreads > 1
+                && (nativeThreads == null || Integer.parseInt(nativeThreads.trim()) < 2 * numberOfThreads)) {
+            LOG.error("Training with '{}' threads needs {} of at least '{}', otherwise libnd4j crashes",
+                    numberOfThreads, NATIVE_THREADS_VARIABLE, 2 * numberOfThreads);
+            System.exit(2);
+        }
+
+        // Give a name to the network we are about to train
+        final long timestamp = System.currentTimeMillis();
+        final String randomNetworkName = "network-" + timestamp + ".zip";
+
+        // Create our training environment, every thread gets its own instance of it recording in the same metrics. Time
+        // shares of the metrics are summed over the threads, so they add up to at most the number of threads.
+        final TrainingMetrics metrics = new TrainingMetrics();
+        final Environment mdp = new Environment();
+        mdp.setMetrics(metrics);
+        final AsyncQLearningConfiguration configuration = NetworkUtil.buildAsyncConfig(numberOfThreads);
+        final AsyncNStepQLearningDiscreteDense<GameState> learning = new AsyncNStepQLearningDiscreteDense<>(
+                mdp,
+                new TimedDQNFactory(NetworkUtil.buildDQNFactory(), metrics),
+                configuration
+        );
+
+        final TargetScoreListener targetScoreListener = new TargetScoreListener(
+                targetScore,
+                configuration.getMaxEpochStep(),
+                SCORE_WINDOW
+        );
+        learning.addListener(targetScoreListener);
+
+        // Start the training
+        LOG.info("Starting training with '{}' threads and target score '{}'", numberOfThreads, targetScore);
+        final long start = System.nanoTime();
+        metrics.registerMBean();
+        try (MetricsReporter reporter = new MetricsReporter(
+                metrics,
+                METRICS_INTERVAL_SECONDS,
+                Paths.get("training-metrics-" + timestamp + ".csv"))) {
+            reporter.start();
+            learning.train();
+        } catch (final IOException e) {
+            LOG.error(e.getMessage(), e);
+        }
+        metrics.unregisterMBean();
+        final long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        mdp.close();
+
+        LOG.info("Training with '{}' threads took '{}' ms, time to target score '{}' ms",
+                numberOfThreads, elapsedMs, targetScoreListener.getTimeToTargetMs());
+
+        // Save network
+        try {
+            learning.getNeuralNet().save(randomNetworkName);
+        } catch (IOException e) {
+            LOG.error(e.getMessage(), e);
+        }
+    }
+}
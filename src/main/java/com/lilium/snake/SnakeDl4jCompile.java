@@ -0,0 +1,73 @@
+package com.lilium.snake;
+
+import com.lilium.snake.network.Action;
+import com.lilium.snake.network.GameObservationSpace;
+import com.lilium.snake.network.policy.PolicyTable;
+import com.lilium.snake.network.util.NetworkUtil;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * Policy compilation entry point. Runs a saved network over every observation of the (finite) observation space and
+ * writes the resulting {@link PolicyTable}, which can be evaluated and deployed instead of the network. Every entry is
+ * logged with its Q-values.
+ * <p>
+ * Usage: {@code SnakeDl4jCompile <network.zip> [output.table]}
+ *
+ * @author mirza
+ */
+public final class SnakeDl4jCompile {
+    private static final Logger LOG = LoggerFactory.getLogger(SnakeDl4jCompile.class);
+
+    private SnakeDl4jCompile() {}
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            LOG.error("Usage: SnakeDl4jCompile <network.zip> [output.table]");
+            System.exit(2);
+        }
+
+        final String networkName = args[0];
+        final Path tableFile = args.length > 1
+                ? Paths.get(args[1])
+                : Paths.get(networkName.replaceFirst("\\.zip$", "") + PolicyTable.FILE_EXTENSION);
+
+        final GameObservationSpace observationSpace = new GameObservationSpace();
+        if (!observationSpace.isFinite()) {
+            LOG.error("Observations of the '{}' features are not finite, only networks of finite ones can be compiled",
+                    NetworkUtil.FEATURE_SET);
+            System.exit(2);
+        }
+
+        final MultiLayerNetwork network = NetworkUtil.loadNetwork(networkName);
+        if (network == null) {
+            LOG.error("Could not load network '{}'", networkName);
+            System.exit(2);
+        }
+
+        final PolicyTable table = PolicyTable.compile(network);
+        final double[] observation = new double[NetworkUtil.NUMBER_OF_INPUTS];
+        final float[] qValues = new float[table.getNumberOfActions()];
+        for (int i = 0; i < table.getNumberOfObservations(); i++) {
+            observationSpace.getObservation(i, observation);
+            for (int j = 0; j < qValues.length; j++) {
+                qValues[j] = table.getQValue(i, j);
+            }
+
+            LOG.info("{} -> {} {}",
+                    Arrays.toString(observation),
+                    Action.getActionByIndex(table.getAction(i)),
+                    Arrays.toString(qValues));
+        }
+
+        table.save(tableFile);
+        LOG.info("Compiled network '{}' into '{}' with '{}' entries", networkName, tableFile,
+                table.getNumberOfObservations());
+    }
+}
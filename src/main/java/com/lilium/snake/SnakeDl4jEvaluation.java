@@ -0,0 +1,84 @@
+package com.lilium.snake;
+
+import com.lilium.snake.evaluation.EvaluationResult;
+import com.lilium.snake.evaluation.Evaluator;
+import com.lilium.snake.network.policy.MlpPolicy;
+import com.lilium.snake.network.policy.Policy;
+import com.lilium.snake.network.policy.PolicyTable;
+import com.lilium.snake.network.util.NetworkUtil;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.function.Supplier;
+
+/**
+ * Headless evaluation entry point. Loads a saved network and plays the games in parallel, every thread runs its own
+ * copy of the network in plain Java (see {@link MlpPolicy}). A policy compiled by {@link SnakeDl4jCompile}
+ * ({@code .table} file) can be evaluated instead of the network, all threads share it. When a minimum mean score is given the process exits with a non-zero status if
+ * the network does not reach it, so that the evaluation can gate model promotion.
+ * <p>
+ * Usage: {@code SnakeDl4jEvaluation <network.zip|policy.table> [numberOfGames] [numberOfThreads] [minMeanScore]}
+ *
+ * @author mirza
+ */
+public final class SnakeDl4jEvaluation {
+    private static final Logger LOG = LoggerFactory.getLogger(SnakeDl4jEvaluation.class);
+
+    // Enough steps to reach any cell of the board, if the snake did not eat by then it is going in circles
+    static final int MAX_STEPS_WITHOUT_FOOD = 1000;
+
+    private SnakeDl4jEvaluation() {}
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            LOG.error("Usage: SnakeDl4jEvaluation <network.zip|policy.table> [numberOfGames] [numberOfThreads] "
+                    + "[minMeanScore]");
+            System.exit(2);
+        }
+
+        final String networkName = args[0];
+        final int numberOfGames = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        final int numberOfThreads = args.length > 2
+                ? Integer.parseInt(args[2])
+                : Runtime.getRuntime().availableProcessors();
+        final double minMeanScore = args.length > 3 ? Double.parseDouble(args[3]) : Double.NEGATIVE_INFINITY;
+
+        final Evaluator evaluator = new Evaluator(
+                buildPolicySupplier(networkName),
+                numberOfThreads,
+                MAX_STEPS_WITHOUT_FOOD,
+                NetworkUtil.SEED
+        );
+
+        LOG.info("Evaluating network '{}' with '{}' games on '{}' threads", networkName, numberOfGames, numberOfThreads);
+        final EvaluationResult result = evaluator.evaluate(numberOfGames);
+        LOG.info("Evaluation result: {}", result);
+
+        if (result.getMeanScore() < minMeanScore) {
+            LOG.error("Mean score '{}' is below the required '{}'", result.getMeanScore(), minMeanScore);
+            System.exit(1);
+        }
+    }
+
+    private static Supplier<Policy> buildPolicySupplier(final String networkName) throws IOException {
+        // Compiled table is immutable so all threads share it
+        if (networkName.endsWith(PolicyTable.FILE_EXTENSION)) {
+            final PolicyTable table = PolicyTable.load(Paths.get(networkName));
+            return () -> table;
+        }
+
+        final MultiLayerNetwork network = NetworkUtil.loadNetwork(networkName);
+        if (network == null) {
+            LOG.error("Could not load network '{}'", networkName);
+            System.exit(2);
+        }
+
+        // Weights are copied out of ND4J once, workers never call native code (which crashes when called from
+        // several threads) and every worker only needs its own activations
+        final MlpPolicy policy = MlpPolicy.of(network);
+        return policy::copy;
+    }
+}
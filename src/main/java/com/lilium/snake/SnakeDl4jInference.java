@@ -0,0 +1,65 @@
+package com.lilium.snake;
+
+import com.lilium.snake.inference.InferenceServer;
+import com.lilium.snake.inference.MicroBatcher;
+import com.lilium.snake.inference.ModelRegistry;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inference server entry point. Loads a saved network and serves actions on {@code POST /action} of the loopback
+ * address until the process is stopped. Other networks can be swapped in with {@code POST /model}, loaded networks
+ * are cached in memory and in the {@code model-cache} directory.
+ * <p>
+ * Usage: {@code SnakeDl4jInference <network.zip> [port] [latencyBudgetMs] [maxBatchSize]}
+ *
+ * @author mirza
+ */
+public final class SnakeDl4jInference {
+    private static final Logger LOG = LoggerFactory.getLogger(SnakeDl4jInference.class);
+
+    // Every handler thread can have one request waiting for its batch
+    private static final int NUMBER_OF_HANDLER_THREADS = 256;
+    // Number of networks kept in memory for swapping
+    private static final int MAX_MODELS = 4;
+
+    private SnakeDl4jInference() {}
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            LOG.error("Usage: SnakeDl4jInference <network.zip> [port] [latencyBudgetMs] [maxBatchSize]");
+            System.exit(2);
+        }
+
+        final String networkName = args[0];
+        final int port = args.length > 1 ? Integer.parseInt(args[1]) : 8080;
+        final long latencyBudgetMs = args.length > 2 ? Long.parseLong(args[2]) : 2;
+        final int maxBatchSize = args.length > 3 ? Integer.parseInt(args[3]) : 256;
+
+        final ModelRegistry registry = new ModelRegistry(MAX_MODELS, Paths.get("model-cache"));
+        MultiLayerNetwork network = null;
+        try {
+            network = registry.get(Paths.get(networkName));
+        } catch (final IOException e) {
+            LOG.error("Could not load network '{}'", networkName, e);
+            System.exit(2);
+        }
+
+        final MicroBatcher batcher = new MicroBatcher(
+                network,
+                TimeUnit.MILLISECONDS.toNanos(latencyBudgetMs),
+                maxBatchSize
+        );
+        final InferenceServer server = new InferenceServer(batcher, registry, port, NUMBER_OF_HANDLER_THREADS);
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+
+        LOG.info("Serving network '{}' with latency budget '{}' ms and max batch size '{}'",
+                networkName, latencyBudgetMs, maxBatchSize);
+        server.start();
+    }
+}
@@ -0,0 +1,65 @@
+package com.lilium.snake;
+
+import com.lilium.snake.evaluation.Evaluator;
+import com.lilium.snake.network.policy.PolicyTable;
+import com.lilium.snake.network.tabular.TabularAlgorithm;
+import com.lilium.snake.network.tabular.TabularTrainer;
+import com.lilium.snake.network.util.NetworkUtil;
+import org.deeplearning4j.rl4j.learning.configuration.QLearningConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Tabular training entry point, a fast baseline for the DQN of {@link SnakeDl4j}. Trains a Q-table with the settings
+ * of {@link NetworkUtil#buildConfig()} (by default also for the same number of steps), writes it as a
+ * {@link PolicyTable} and evaluates it the same way as {@link SnakeDl4jEvaluation}.
+ * <p>
+ * Usage: {@code SnakeDl4jTabular [numberOfSteps] [output.table] [Q_LEARNING|SARSA]}
+ *
+ * @author mirza
+ */
+public final class SnakeDl4jTabular {
+    private static final Logger LOG = LoggerFactory.getLogger(SnakeDl4jTabular.class);
+
+    private static final double LEARNING_RATE = 0.1;
+    private static final int NUMBER_OF_GAMES = 1000;
+
+    private SnakeDl4jTabular() {}
+
+    public static void main(String[] args) throws IOException {
+        final QLearningConfiguration config = NetworkUtil.buildConfig();
+        final long numberOfSteps = args.length > 0 ? Long.parseLong(args[0]) : config.getMaxStep();
+        final Path tableFile = args.length > 1
+                ? Paths.get(args[1])
+                : Paths.get("tabular-" + System.currentTimeMillis() + PolicyTable.FILE_EXTENSION);
+        final TabularAlgorithm algorithm = args.length > 2
+                ? TabularAlgorithm.valueOf(args[2])
+                : TabularAlgorithm.Q_LEARNING;
+
+        final TabularTrainer trainer = new TabularTrainer(config, algorithm, LEARNING_RATE);
+        final long start = System.nanoTime();
+        trainer.train(numberOfSteps);
+        LOG.info("Trained '{}' for '{}' steps and '{}' episodes in '{}' ms, average training score '{}'",
+                algorithm,
+                trainer.getSteps(),
+                trainer.getEpisodes(),
+                (System.nanoTime() - start) / 1_000_000,
+                trainer.getAverageScore());
+
+        final PolicyTable table = trainer.toPolicyTable();
+        table.save(tableFile);
+        LOG.info("Saved table '{}'", tableFile);
+
+        final Evaluator evaluator = new Evaluator(
+                () -> table,
+                Runtime.getRuntime().availableProcessors(),
+                SnakeDl4jEvaluation.MAX_STEPS_WITHOUT_FOOD,
+                NetworkUtil.SEED
+        );
+        LOG.info("Evaluation result: {}", evaluator.evaluate(NUMBER_OF_GAMES));
+    }
+}
@@ -0,0 +1,158 @@
+package com.lilium.snake.benchmark;
+
+import com.lilium.snake.evaluation.util.StatisticsUtil;
+import com.lilium.snake.inference.InferenceServer;
+import com.lilium.snake.inference.MicroBatcher;
+import com.lilium.snake.network.util.NetworkUtil;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load generator starting an {@link InferenceServer} in-process and querying it from many concurrent clients, each
+ * client sends its next request as soon as it gets the response. Reports p50/p99 request latency, throughput and the
+ * average size of the batches.
+ * <p>
+ * Usage: {@code InferenceLoadGenerator [network.zip] [numberOfClients] [durationSeconds] [latencyBudgetMs]
+ * [maxBatchSize]}
+ *
+ * @author mirza
+ */
+public final class InferenceLoadGenerator {
+    private static final Logger LOG = LoggerFactory.getLogger(InferenceLoadGenerator.class);
+
+    private InferenceLoadGenerator() {}
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        final String networkName = args.length > 0 ? args[0] : "network-1624729771113.zip";
+        final int numberOfClients = args.length > 1 ? Integer.parseInt(args[1]) : 32;
+        final long durationSeconds = args.length > 2 ? Long.parseLong(args[2]) : 10;
+        final long latencyBudgetMs = args.length > 3 ? Long.parseLong(args[3]) : 2;
+        final int maxBatchSize = args.length > 4 ? Integer.parseInt(args[4]) : 256;
+
+        final MultiLayerNetwork network = NetworkUtil.loadNetwork(networkName);
+        if (network == null) {
+            LOG.error("Could not load network '{}'", networkName);
+            return;
+        }
+
+        final MicroBatcher batcher = new MicroBatcher(
+                network,
+                TimeUnit.MILLISECONDS.toNanos(latencyBudgetMs),
+                maxBatchSize
+        );
+        try (InferenceServer server = new InferenceServer(batcher, 0, numberOfClients)) {
+            server.start();
+
+            final URI uri = URI.create("http://localhost:" + server.getPort() + "/action");
+            final HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            final long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(durationSeconds);
+
+            final Client[] clients = new Client[numberOfClients];
+            final Thread[] threads = new Thread[numberOfClients];
+            final long start = System.nanoTime();
+            for (int i = 0; i < numberOfClients; i++) {
+                clients[i] = new Client(httpClient, uri, i, end);
+                threads[i] = new Thread(clients[i], "load-client-" + i);
+                threads[i].start();
+            }
+
+            int numberOfRequests = 0;
+            int numberOfErrors = 0;
+            for (int i = 0; i < numberOfClients; i++) {
+                threads[i].join();
+                numberOfRequests += clients[i].numberOfLatencies;
+                numberOfErrors += clients[i].numberOfErrors;
+            }
+            final double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+            final int[] latencies = new int[numberOfRequests];
+            int offset = 0;
+            for (final Client client : clients) {
+                System.arraycopy(client.latenciesMicros, 0, latencies, offset, client.numberOfLatencies);
+                offset += client.numberOfLatencies;
+            }
+            Arrays.sort(latencies);
+
+            LOG.info("Clients = {}, latency budget = {} ms: {} requests/s, latency p50 {} us, p99 {} us, max {} us, "
+                            + "average batch size {}, errors {}",
+                    numberOfClients,
+                    latencyBudgetMs,
+                    String.format("%.0f", numberOfRequests / seconds),
+                    StatisticsUtil.percentile(latencies, 50),
+                    StatisticsUtil.percentile(latencies, 99),
+                    StatisticsUtil.percentile(latencies, 100),
+                    String.format("%.1f", batcher.getAverageBatchSize()),
+                    numberOfErrors);
+        }
+    }
+
+    private static final class Client implements Runnable {
+        private final HttpClient httpClient;
+        private final URI uri;
+        private final SplittableRandom random;
+        private final long end;
+
+        private int[] latenciesMicros = new int[1024];
+        private int numberOfLatencies;
+        private int numberOfErrors;
+
+        private Client(final HttpClient httpClient, final URI uri, final long seed, final long end) {
+            this.httpClient = httpClient;
+            this.uri = uri;
+            this.random = new SplittableRandom(seed);
+            this.end = end;
+        }
+
+        @Override
+        public void run() {
+            while (System.nanoTime() < end) {
+                final HttpRequest request = HttpRequest.newBuilder(uri)
+                        .POST(HttpRequest.BodyPublishers.ofString(buildObservation()))
+                        .build();
+
+                final long start = System.nanoTime();
+                try {
+                    final HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+                    if (response.statusCode() != 200) {
+                        numberOfErrors++;
+                        continue;
+                    }
+                } catch (final IOException e) {
+                    numberOfErrors++;
+                    continue;
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+
+                if (numberOfLatencies == latenciesMicros.length) {
+                    latenciesMicros = Arrays.copyOf(latenciesMicros, latenciesMicros.length * 2);
+                }
+                latenciesMicros[numberOfLatencies++] = (int) ((System.nanoTime() - start) / 1000);
+            }
+        }
+
+        private String buildObservation() {
+            // Observation values are -1, 0 or 1
+            final StringBuilder builder = new StringBuilder();
+            for (int i = 0; i < NetworkUtil.NUMBER_OF_INPUTS; i++) {
+                if (i > 0) {
+                    builder.append(',');
+                }
+                builder.append(random.nextInt(3) - 1);
+            }
+
+            return builder.toString();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.lilium.snake.benchmark;
+
+import com.lilium.snake.game.Game;
+import com.lilium.snake.game.GameEngine;
+import com.lilium.snake.game.helper.BoardSnapshot;
+import com.lilium.snake.network.Action;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Simple benchmark comparing game steps per second of the headless {@link GameEngine} against the engine with the
+ * Swing {@link Game} view attached. The view is painted into an offscreen image after every move, which is what the
+ * panel did on every step before the engine was split from it. Spectator mode is the view as it is used now, drawing
+ * published snapshots at a fixed frame rate on the event dispatch thread.
+ *
+ * @author mirza
+ */
+public final class StepBenchmark {
+    private static final Logger LOG = LoggerFactory.getLogger(StepBenchmark.class);
+
+    private static final int WARMUP_STEPS = 200_000;
+    private static final int MEASURED_STEPS = 2_000_000;
+
+    private StepBenchmark() {}
+
+    public static void main(String[] args) {
+        final GameEngine headless = new GameEngine();
+        run("headless", headless, WARMUP_STEPS);
+        final double headlessStepsPerSecond = run("headless", headless, MEASURED_STEPS);
+
+        final GameEngine withView = new GameEngine();
+        final Game game = new Game(withView);
+        game.setSize(game.getPreferredSize());
+        final BufferedImage image = new BufferedImage(game.getWidth(), game.getHeight(), BufferedImage.TYPE_INT_RGB);
+        withView.setUpdateListener(engine -> {
+            final Graphics graphics = image.getGraphics();
+            game.paintSnapshot(graphics, BoardSnapshot.of(engine));
+            graphics.dispose();
+        });
+        run("swing view", withView, WARMUP_STEPS / 10);
+        final double viewStepsPerSecond = run("swing view", withView, MEASURED_STEPS / 10);
+
+        final GameEngine spectated = new GameEngine();
+        new Game(spectated);
+        run("spectator", spectated, WARMUP_STEPS);
+        final double spectatorStepsPerSecond = run("spectator", spectated, MEASURED_STEPS);
+
+        LOG.info("Headless engine is {}x faster than the engine with the Swing view, {}x faster than the spectated one",
+                String.format("%.1f", headlessStepsPerSecond / viewStepsPerSecond),
+                String.format("%.2f", headlessStepsPerSecond / spectatorStepsPerSecond));
+
+        // Frame timer of the spectator view keeps the event dispatch thread alive
+        System.exit(0);
+    }
+
+    private static double run(final String name, final GameEngine engine, final int steps) {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        double checksum = 0;
+
+        final long start = System.nanoTime();
+        for (int i = 0; i < steps; i++) {
+            // Same work as one environment step
+            final Action action = Action.getActionByIndex(random.nextInt(4));
+            engine.changeDirection(action);
+            engine.move();
+            checksum += engine.calculateRewardForActionToTake(action);
+            checksum += engine.buildStateObservation().toArray()[0];
+
+            if (!engine.isOngoing()) {
+                engine.initializeGame();
+            }
+        }
+        final long elapsed = System.nanoTime() - start;
+
+        final double stepsPerSecond = steps / (elapsed / 1_000_000_000.0);
+        LOG.info("{}: {} steps in {} ms => {} steps/s (checksum {})",
+                name, steps, elapsed / 1_000_000, String.format("%.0f", stepsPerSecond), checksum);
+
+        return stepsPerSecond;
+    }
+}
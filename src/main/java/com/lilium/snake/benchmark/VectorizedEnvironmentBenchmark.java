@@ -0,0 +1,64 @@
+package com.lilium.snake.benchmark;
+
+import com.lilium.snake.network.VectorizedEnvironment;
+import com.lilium.snake.network.util.NetworkUtil;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Benchmark reporting throughput of {@link VectorizedEnvironment} driven by a trained network for different number of
+ * games. Every step is one batched forward pass for all games.
+ * <p>
+ * Usage: {@code VectorizedEnvironmentBenchmark [network.zip]}
+ *
+ * @author mirza
+ */
+public final class VectorizedEnvironmentBenchmark {
+    private static final Logger LOG = LoggerFactory.getLogger(VectorizedEnvironmentBenchmark.class);
+
+    private static final int[] NUMBER_OF_GAMES = {1, 16, 256, 4096};
+    private static final long WARMUP_NANOS = 2_000_000_000L;
+    private static final long MEASURED_NANOS = 5_000_000_000L;
+
+    private VectorizedEnvironmentBenchmark() {}
+
+    public static void main(String[] args) {
+        final String networkName = args.length > 0 ? args[0] : "network-1624729771113.zip";
+        final MultiLayerNetwork network = NetworkUtil.loadNetwork(networkName);
+        if (network == null) {
+            LOG.error("Could not load network '{}'", networkName);
+            return;
+        }
+
+        for (final int numberOfGames : NUMBER_OF_GAMES) {
+            final VectorizedEnvironment environment = new VectorizedEnvironment(numberOfGames);
+            run(environment, network, WARMUP_NANOS);
+
+            final long stepsBefore = environment.getSteps();
+            final long start = System.nanoTime();
+            final long forwardPasses = run(environment, network, MEASURED_NANOS);
+            final double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+            LOG.info("N = {}: {} game steps/s, {} forward passes/s, {} finished episodes, average score {}",
+                    numberOfGames,
+                    String.format("%.0f", (environment.getSteps() - stepsBefore) / seconds),
+                    String.format("%.0f", forwardPasses / seconds),
+                    environment.getFinishedEpisodes(),
+                    String.format("%.2f", environment.getAverageScore()));
+        }
+    }
+
+    private static long run(final VectorizedEnvironment environment,
+                            final MultiLayerNetwork network,
+                            final long durationNanos) {
+        long forwardPasses = 0;
+        final long end = System.nanoTime() + durationNanos;
+        while (System.nanoTime() < end) {
+            environment.step(network);
+            forwardPasses++;
+        }
+
+        return forwardPasses;
+    }
+}
@@ -0,0 +1,128 @@
+package com.lilium.snake.evaluation;
+
+import com.lilium.snake.evaluation.util.StatisticsUtil;
+
+import java.util.Arrays;
+
+/**
+ * Result of a network evaluation containing score and episode length of every played game and how the games ended.
+ *
+ * @author mirza
+ */
+public class EvaluationResult {
+    // region Member
+    private final int[] sortedScores;
+    private final int[] sortedLengths;
+    private final int wallDeaths;
+    private final int bodyDeaths;
+    private final int timeouts;
+    private final int wins;
+    private final long elapsedNanos;
+    // endregion
+
+    // region Setup
+    /**
+     * @param scores Score of every game.
+     * @param lengths Episode length (number of steps) of every game.
+     * @param wallDeaths Number of games that ended by hitting the wall.
+     * @param bodyDeaths Number of games that ended by hitting the body.
+     * @param timeouts Number of games that were ended because the snake did not eat in time.
+     * @param wins Number of games in which the snake filled the whole board.
+     * @param elapsedNanos Wall-clock time needed to play all games.
+     */
+    public EvaluationResult(final int[] scores,
+                            final int[] lengths,
+                            final int wallDeaths,
+                            final int bodyDeaths,
+                            final int timeouts,
+                            final int wins,
+                            final long elapsedNanos) {
+        this.sortedScores = scores.clone();
+        this.sortedLengths = lengths.clone();
+        this.wallDeaths = wallDeaths;
+        this.bodyDeaths = bodyDeaths;
+        this.timeouts = timeouts;
+        this.wins = wins;
+        this.elapsedNanos = elapsedNanos;
+
+        Arrays.sort(sortedScores);
+        Arrays.sort(sortedLengths);
+    }
+    // endregion
+
+    // region Implementation
+    public int getNumberOfGames() {
+        return sortedScores.length;
+    }
+
+    public double getMeanScore() {
+        return StatisticsUtil.mean(sortedScores);
+    }
+
+    /**
+     * Get score percentile over all games.
+     *
+     * @param percentile Percentile between 0 and 100.
+     * @return .
+     */
+    public int getScorePercentile(final double percentile) {
+        return StatisticsUtil.percentile(sortedScores, percentile);
+    }
+
+    public int getHighScore() {
+        return getScorePercentile(100);
+    }
+
+    public double getMeanLength() {
+        return StatisticsUtil.mean(sortedLengths);
+    }
+
+    /**
+     * Get episode length percentile over all games.
+     *
+     * @param percentile Percentile between 0 and 100.
+     * @return .
+     */
+    public int getLengthPercentile(final double percentile) {
+        return StatisticsUtil.percentile(sortedLengths, percentile);
+    }
+
+    public int getWallDeaths() {
+        return wallDeaths;
+    }
+
+    public int getBodyDeaths() {
+        return bodyDeaths;
+    }
+
+    public int getTimeouts() {
+        return timeouts;
+    }
+
+    public int getWins() {
+        return wins;
+    }
+
+    public long getElapsedMs() {
+        return elapsedNanos / 1_000_000;
+    }
+
+    public double getGamesPerSecond() {
+        return elapsedNanos == 0 ? 0 : getNumberOfGames() / (elapsedNanos / 1_000_000_000.0);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "games=%d, score mean=%.2f median=%d p95=%d p99=%d max=%d, "
+                        + "length mean=%.1f median=%d p95=%d p99=%d, "
+                        + "deaths wall=%d body=%d timeout=%d, wins=%d, %.1f games/s",
+                getNumberOfGames(),
+                getMeanScore(), getScorePercentile(50), getScorePercentile(95), getScorePercentile(99), getHighScore(),
+                getMeanLength(), getLengthPercentile(50), getLengthPercentile(95), getLengthPercentile(99),
+                wallDeaths, bodyDeaths, timeouts, wins,
+                getGamesPerSecond()
+        );
+    }
+    // endregion
+}
@@ -0,0 +1,132 @@
+package com.lilium.snake.evaluation;
+
+import com.lilium.snake.game.GameEngine;
+import com.lilium.snake.game.helper.GameOverReason;
+import com.lilium.snake.network.Action;
+import com.lilium.snake.network.policy.Policy;
+import com.lilium.snake.network.util.NetworkUtil;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Used to evaluate a policy by playing headless games in parallel on a fork-join pool. Every worker thread gets its
+ * own policy instance, every game is played from its own episode seed so the result does not depend on the number of
+ * threads.
+ *
+ * @author mirza
+ */
+public class Evaluator {
+    // region Member
+    private final Supplier<Policy> policySupplier;
+    private final int numberOfThreads;
+    private final int maxStepsWithoutFood;
+    private final long seed;
+    // endregion
+
+    // region Setup
+    /**
+     * @param policySupplier Supplier creating a policy, called once per worker thread.
+     * @param numberOfThreads Number of threads of the fork-join pool.
+     * @param maxStepsWithoutFood Number of steps without eating after which the game is ended (counted as timeout).
+     * @param seed Seed from which the seed of every game is derived.
+     */
+    public Evaluator(final Supplier<Policy> policySupplier,
+                     final int numberOfThreads,
+                     final int maxStepsWithoutFood,
+                     final long seed) {
+        this.policySupplier = policySupplier;
+        this.numberOfThreads = numberOfThreads;
+        this.maxStepsWithoutFood = maxStepsWithoutFood;
+        this.seed = seed;
+    }
+    // endregion
+
+    // region Implementation
+    /**
+     * Play the games and collect their results.
+     *
+     * @param numberOfGames Number of games to play.
+     * @return Returns result of the evaluation.
+     */
+    public EvaluationResult evaluate(final int numberOfGames) {
+        final long[] seeds = new long[numberOfGames];
+        final SplittableRandom random = new SplittableRandom(seed);
+        for (int i = 0; i < numberOfGames; i++) {
+            seeds[i] = random.nextLong();
+        }
+
+        final int[] scores = new int[numberOfGames];
+        final int[] lengths = new int[numberOfGames];
+        final GameOverReason[] reasons = new GameOverReason[numberOfGames];
+        final ThreadLocal<Policy> policies = ThreadLocal.withInitial(policySupplier);
+        // Games are reused by the threads, every game is started from its own episode seed
+        final ThreadLocal<GameEngine> games = ThreadLocal.withInitial(() -> new GameEngine(new SplittableRandom(seed)));
+
+        final long start = System.nanoTime();
+        final ForkJoinPool pool = new ForkJoinPool(numberOfThreads);
+        try {
+            // Parallel stream started from within the pool runs on the pool threads
+            pool.submit(() -> IntStream.range(0, numberOfGames).parallel().forEach(i -> {
+                final GameEngine game = games.get();
+                game.reset(seeds[i]);
+                play(game, policies.get());
+
+                scores[i] = game.getScore();
+                lengths[i] = game.getSteps();
+                reasons[i] = game.getGameOverReason();
+            })).get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Evaluation was interrupted", e);
+        } catch (final ExecutionException e) {
+            throw new IllegalStateException("Evaluation failed", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        final long elapsedNanos = System.nanoTime() - start;
+
+        int wallDeaths = 0;
+        int bodyDeaths = 0;
+        int timeouts = 0;
+        int wins = 0;
+        for (final GameOverReason reason : reasons) {
+            switch (reason) {
+                case WALL -> wallDeaths++;
+                case BODY -> bodyDeaths++;
+                case WIN -> wins++;
+                // Only the evaluator ends games itself, when the snake did not eat in time
+                case ENDED -> timeouts++;
+                default -> throw new IllegalStateException("Game ended for unexpected reason " + reason);
+            }
+        }
+
+        return new EvaluationResult(scores, lengths, wallDeaths, bodyDeaths, timeouts, wins, elapsedNanos);
+    }
+    // endregion
+
+    // region Helper
+    private void play(final GameEngine game, final Policy policy) {
+        final double[] observation = new double[NetworkUtil.NUMBER_OF_INPUTS];
+        int snakeLength = game.getSnakeLength();
+        int stepsWithoutFood = 0;
+
+        while (game.isOngoing()) {
+            game.buildStateObservation(observation);
+            game.changeDirection(Action.getActionByIndex(policy.selectAction(observation)));
+            game.move();
+
+            if (game.getSnakeLength() > snakeLength) {
+                snakeLength = game.getSnakeLength();
+                stepsWithoutFood = 0;
+            } else if (++stepsWithoutFood >= maxStepsWithoutFood) {
+                // Snake is most likely going in circles
+                game.endGame();
+            }
+        }
+    }
+    // endregion
+}
@@ -0,0 +1,49 @@
+package com.lilium.snake.evaluation.util;
+
+/**
+ * Util class containing methods to calculate statistics of evaluation results.
+ *
+ * @author mirza
+ */
+public final class StatisticsUtil {
+    private StatisticsUtil() {}
+
+    /**
+     * Calculate mean of the values.
+     *
+     * @param values Values of which the mean is calculated.
+     * @return Returns mean, 0 if there are no values.
+     */
+    public static double mean(final int[] values) {
+        if (values.length == 0) {
+            return 0;
+        }
+
+        long sum = 0;
+        for (final int value : values) {
+            sum += value;
+        }
+
+        return (double) sum / values.length;
+    }
+
+    /**
+     * Get percentile of the values using the nearest-rank method.
+     *
+     * @param sortedValues Values sorted in ascending order.
+     * @param percentile Percentile between 0 and 100 (e.g. 50 for the median).
+     * @return Returns value at the percentile, 0 if there are no values.
+     */
+    public static int percentile(final int[] sortedValues, final double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100 but was " + percentile);
+        }
+
+        if (sortedValues.length == 0) {
+            return 0;
+        }
+
+        final int rank = (int) Math.ceil(percentile / 100 * sortedValues.length);
+        return sortedValues[Math.max(rank - 1, 0)];
+    }
+}
@@ -0,0 +1,24 @@
+package com.lilium.snake.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event of one {@code Environment.reset}, which starts a new episode.
+ *
+ * @author mirza
+ */
+@Name("com.lilium.snake.EnvironmentReset")
+@Label("Environment Reset")
+@Category({"Snake", "Environment"})
+@Description("Reset of the training environment at the start of an episode")
+@StackTrace(false)
+public class EnvironmentResetEvent extends Event {
+    @Label("Episode Seed")
+    @Description("Seed with which the episode can be replayed")
+    public long episodeSeed;
+}
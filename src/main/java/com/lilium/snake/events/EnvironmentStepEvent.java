@@ -0,0 +1,31 @@
+package com.lilium.snake.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event of one {@code Environment.step}, its duration includes moving the snake and building the
+ * observation.
+ *
+ * @author mirza
+ */
+@Name("com.lilium.snake.EnvironmentStep")
+@Label("Environment Step")
+@Category({"Snake", "Environment"})
+@Description("Step of the training environment")
+@StackTrace(false)
+public class EnvironmentStepEvent extends Event {
+    @Label("Action")
+    public int action;
+
+    @Label("Reward")
+    public double reward;
+
+    @Label("Done")
+    @Description("True if the step has ended the episode")
+    public boolean done;
+}
@@ -0,0 +1,44 @@
+package com.lilium.snake.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event of an episode ending, either by the game being over or by a new episode being started before
+ * (e.g. because the learner reached its maximum number of steps per episode).
+ *
+ * @author mirza
+ */
+@Name("com.lilium.snake.EpisodeEnd")
+@Label("Episode End")
+@Category({"Snake", "Game"})
+@Description("End of an episode")
+@StackTrace(false)
+public class EpisodeEndEvent extends Event {
+    /**
+     * Cause of episodes which are ended by starting a new one.
+     */
+    public static final String TRUNCATED = "TRUNCATED";
+
+    @Label("Score")
+    public int score;
+
+    @Label("Length")
+    @Description("Length of the snake")
+    public int length;
+
+    @Label("Steps")
+    @Description("Number of steps of the episode")
+    public int steps;
+
+    @Label("Cause")
+    @Description("WALL or BODY if the snake has died, WIN, ENDED, or TRUNCATED if a new episode was started")
+    public String cause;
+
+    @Label("Episode Seed")
+    public long episodeSeed;
+}
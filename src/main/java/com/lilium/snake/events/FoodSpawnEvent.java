@@ -0,0 +1,32 @@
+package com.lilium.snake.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event of food being placed onto the board.
+ *
+ * @author mirza
+ */
+@Name("com.lilium.snake.FoodSpawn")
+@Label("Food Spawn")
+@Category({"Snake", "Game"})
+@Description("Food placed onto a free cell")
+@StackTrace(false)
+public class FoodSpawnEvent extends Event {
+    @Label("X")
+    @Description("Column of the food cell")
+    public int x;
+
+    @Label("Y")
+    @Description("Row of the food cell")
+    public int y;
+
+    @Label("Free Cells")
+    @Description("Number of cells the food could be placed on")
+    public int freeCells;
+}
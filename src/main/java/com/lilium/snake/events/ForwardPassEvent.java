@@ -0,0 +1,24 @@
+package com.lilium.snake.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event of one network forward pass selecting actions, during evaluation or inference.
+ *
+ * @author mirza
+ */
+@Name("com.lilium.snake.ForwardPass")
+@Label("Forward Pass")
+@Category({"Snake", "Network"})
+@Description("Network forward pass selecting actions")
+@StackTrace(false)
+public class ForwardPassEvent extends Event {
+    @Label("Batch Size")
+    @Description("Number of observations in the pass")
+    public int batchSize;
+}
@@ -0,0 +1,527 @@
+package com.lilium.snake.game;
+
+import com.lilium.snake.game.helper.Direction;
+import com.lilium.snake.game.helper.EpisodeRandom;
+import com.lilium.snake.game.helper.GameOverReason;
+import com.lilium.snake.game.helper.OccupancyGrid;
+import com.lilium.snake.game.helper.SnakeBody;
+import com.lilium.snake.game.util.PositionUtil;
+import com.lilium.snake.game.util.RewardUtil;
+import com.lilium.snake.network.Action;
+import com.lilium.snake.network.FeatureSet;
+import com.lilium.snake.network.util.FeatureUtil;
+import com.lilium.snake.network.util.GameStateUtil;
+import com.lilium.snake.network.util.NetworkUtil;
+import org.nd4j.linalg.api.buffer.DataBuffer;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Headless arena in which many snakes compete for food on one board. All snakes are stepped together in one tick,
+ * tails move first, then all heads, and only then collisions are resolved, so the order of the snakes does not
+ * matter. Snakes whose heads meet on one cell all die ({@link GameOverReason#HEAD}), a head on any body part dies
+ * ({@link GameOverReason#BODY}) and so does a head outside the board ({@link GameOverReason#WALL}).
+ * <p>
+ * All snakes share one {@link OccupancyGrid}, so every collision check is a single lookup and a tick costs O(number
+ * of snakes) however long they are. Only a dying snake costs O(length), as its body is removed from the grid. Food is
+ * marked on its own per cell array, every snake heads for one food which is reassigned (nearest one, O(food)) only
+ * when somebody has eaten it.
+ * <p>
+ * Observations and rewards are the same as of {@link GameEngine}, other snakes are obstacles like the own body. Dead
+ * snakes stay off the board until {@link #respawn(int)} is called.
+ *
+ * @author mirza
+ */
+public class ArenaEngine {
+    // region Member
+    private static final int INITIAL_SNAKE_LENGTH = 3;
+    // Body buffers start small and grow with their snake, in a crowded arena most snakes die short
+    private static final int INITIAL_BODY_CAPACITY = 16;
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private final OccupancyGrid occupancyGrid;
+    // Number of heads moved onto every cell in the current tick, all zero between ticks
+    private final byte[] heads;
+    // Food slot + 1 of every cell, 0 if there is no food on it
+    private final int[] foodSlots;
+
+    private final SnakeBody[] bodies;
+    private final int[] snakeLengths;
+    private final Direction[] directions;
+    private final boolean[] alive;
+    private final GameOverReason[] gameOverReasons;
+    private final int[] steps;
+    // Food slot every snake is heading for and the generation of that slot when it was picked
+    private final int[] targetFoods;
+    private final int[] targetGenerations;
+
+    private final int[] foodCells;
+    // Incremented every time the food of the slot is eaten and placed somewhere else
+    private final int[] foodGenerations;
+
+    private final SplittableRandom seeds;
+    private final EpisodeRandom random = new EpisodeRandom();
+
+    // Reused when writing the observation into a buffer
+    private final double[] features = new double[NetworkUtil.NUMBER_OF_INPUTS];
+    // endregion
+
+    // region Setup
+    /**
+     * @param numberOfCells Number of cells in one row or column of the board.
+     * @param numberOfSnakes Number of snakes in the arena.
+     * @param numberOfFood Number of food items which are on the board at all times.
+     * @param seeds Random generator from which the seed of every reset is drawn.
+     */
+    public ArenaEngine(final int numberOfCells,
+                       final int numberOfSnakes,
+                       final int numberOfFood,
+                       final SplittableRandom seeds) {
+        if (numberOfSnakes < 1 || numberOfFood < 1) {
+            throw new IllegalArgumentException("Arena needs at least one snake and one food");
+        }
+
+        this.occupancyGrid = new OccupancyGrid(numberOfCells);
+        if (INITIAL_SNAKE_LENGTH * numberOfSnakes + numberOfFood > occupancyGrid.getFreeCellCount()) {
+            throw new IllegalArgumentException("Board of " + numberOfCells + " x " + numberOfCells
+                    + " cells is too small for " + numberOfSnakes + " snakes and " + numberOfFood + " food");
+        }
+
+        final int cells = numberOfCells * numberOfCells;
+        this.heads = new byte[cells];
+        this.foodSlots = new int[cells];
+
+        this.bodies = new SnakeBody[numberOfSnakes];
+        for (int i = 0; i < numberOfSnakes; i++) {
+            bodies[i] = new SnakeBody(INITIAL_BODY_CAPACITY, cells + 1);
+        }
+        this.snakeLengths = new int[numberOfSnakes];
+        this.directions = new Direction[numberOfSnakes];
+        this.alive = new boolean[numberOfSnakes];
+        this.gameOverReasons = new GameOverReason[numberOfSnakes];
+        this.steps = new int[numberOfSnakes];
+        this.targetFoods = new int[numberOfSnakes];
+        this.targetGenerations = new int[numberOfSnakes];
+
+        this.foodCells = new int[numberOfFood];
+        this.foodGenerations = new int[numberOfFood];
+
+        this.seeds = seeds;
+
+        reset();
+    }
+    // endregion
+
+    // region Implementation
+    /**
+     * Clear the board, spawn all snakes on random free cells and place all food.
+     */
+    public void reset() {
+        random.setSeed(seeds.nextLong());
+        occupancyGrid.clear();
+        Arrays.fill(foodSlots, 0);
+
+        for (int i = 0; i < bodies.length; i++) {
+            bodies[i].clear();
+            alive[i] = false;
+            respawn(i);
+        }
+
+        for (int slot = 0; slot < foodCells.length; slot++) {
+            placeFood(slot);
+        }
+
+        // Targets can only be picked once all food is on the board
+        for (int i = 0; i < bodies.length; i++) {
+            assignNearestFood(i);
+        }
+    }
+
+    /**
+     * Spawn a dead snake on a random free cell. It starts with its head only and gets its initial length with the
+     * next moves, so spawning needs a single free cell.
+     *
+     * @param snake Index of the snake.
+     * @return Returns true if the snake was spawned, false if it is alive or there is no free cell.
+     */
+    public boolean respawn(final int snake) {
+        if (alive[snake] || occupancyGrid.getFreeCellCount() <= foodCells.length) {
+            return false;
+        }
+
+        final int cell = getRandomFreeCell();
+        bodies[snake].clear();
+        bodies[snake].addFirst(cell);
+        occupancyGrid.occupy(cell);
+
+        snakeLengths[snake] = INITIAL_SNAKE_LENGTH;
+        directions[snake] = DIRECTIONS[random.nextInt(DIRECTIONS.length)];
+        alive[snake] = true;
+        gameOverReasons[snake] = GameOverReason.NONE;
+        steps[snake] = 0;
+        assignNearestFood(snake);
+
+        return true;
+    }
+
+    /**
+     * Step all living snakes by one tick. Rewards are calculated the same way as by {@link GameEngine#step(Action)},
+     * snakes that were already dead get reward 0. Snakes that die are removed from the board.
+     *
+     * @param actionIndexes Index of the action to take, one per snake. Ignored for dead snakes.
+     * @param rewards Array into which the reward of every snake is written.
+     * @param done Array into which it is written for every snake if it has died in this tick.
+     */
+    public void step(final int[] actionIndexes, final double[] rewards, final boolean[] done) {
+        // Tails first, a head may move onto the cell a tail leaves in the same tick
+        for (int i = 0; i < bodies.length; i++) {
+            rewards[i] = 0;
+            done[i] = false;
+            if (!alive[i]) {
+                continue;
+            }
+
+            directions[i] = getNextDirection(directions[i], Action.getActionByIndex(actionIndexes[i]));
+            steps[i]++;
+
+            // Tail is kept if the snake has eaten, so that it grows
+            if (bodies[i].size() >= snakeLengths[i]) {
+                occupancyGrid.release(bodies[i].removeLast());
+            }
+        }
+
+        // Move all heads before any collision is checked
+        for (int i = 0; i < bodies.length; i++) {
+            if (!alive[i]) {
+                continue;
+            }
+
+            final int headCell = PositionUtil.getNextCell(bodies[i].getFirst(), directions[i]);
+            bodies[i].addFirst(headCell);
+            occupancyGrid.occupy(headCell);
+            if (!occupancyGrid.isOutsideTheGameBounds(headCell)) {
+                heads[getIndex(headCell)]++;
+            }
+        }
+
+        for (int i = 0; i < bodies.length; i++) {
+            if (alive[i]) {
+                resolveCollision(i);
+            }
+        }
+
+        for (int i = 0; i < bodies.length; i++) {
+            if (!alive[i]) {
+                continue;
+            }
+
+            final int headCell = bodies[i].getFirst();
+            if (!occupancyGrid.isOutsideTheGameBounds(headCell)) {
+                heads[getIndex(headCell)] = 0;
+            }
+
+            // A snake that died on the food does not eat it
+            final int foodSlot = gameOverReasons[i] == GameOverReason.NONE ? getFoodSlot(headCell) : -1;
+            if (foodSlot >= 0) {
+                snakeLengths[i]++;
+                moveFood(foodSlot);
+            }
+        }
+
+        // Rewards see the board after the move, including the heads of dying snakes, as in the single snake game
+        for (int i = 0; i < bodies.length; i++) {
+            if (alive[i]) {
+                rewards[i] = RewardUtil.calculateRewardForActionToTake(
+                        Action.getActionByIndex(actionIndexes[i]),
+                        bodies[i].getFirst(),
+                        occupancyGrid,
+                        getTargetFoodCell(i)
+                );
+            }
+        }
+
+        for (int i = 0; i < bodies.length; i++) {
+            if (alive[i] && gameOverReasons[i] != GameOverReason.NONE) {
+                removeSnake(i);
+                done[i] = true;
+            }
+        }
+    }
+
+    /**
+     * Write the observation of a snake, same features as {@link GameEngine#buildStateObservation(double[])}. Other
+     * snakes are seen as obstacles, the food is the one the snake is heading for. All zero for a dead snake.
+     *
+     * @param snake Index of the snake.
+     * @param observation Array into which the observation is written, needs to hold at least
+     *                    {@link NetworkUtil#NUMBER_OF_INPUTS} values.
+     */
+    public void buildStateObservation(final int snake, final double[] observation) {
+        if (!alive[snake]) {
+            Arrays.fill(observation, 0, NetworkUtil.NUMBER_OF_INPUTS, 0);
+            return;
+        }
+
+        final int headCell = bodies[snake].getFirst();
+        final int foodCell = getTargetFoodCell(snake);
+        observation[0] = GameStateUtil.getStateForDirection(headCell, occupancyGrid, foodCell, Direction.UP);
+        observation[1] = GameStateUtil.getStateForDirection(headCell, occupancyGrid, foodCell, Direction.RIGHT);
+        observation[2] = GameStateUtil.getStateForDirection(headCell, occupancyGrid, foodCell, Direction.DOWN);
+        observation[3] = GameStateUtil.getStateForDirection(headCell, occupancyGrid, foodCell, Direction.LEFT);
+
+        if (NetworkUtil.FEATURE_SET == FeatureSet.EXTENDED) {
+            FeatureUtil.writeExtendedFeatures(
+                    headCell,
+                    foodCell,
+                    occupancyGrid,
+                    bodies[snake],
+                    snakeLengths[snake],
+                    observation,
+                    FeatureSet.BASIC.getNumberOfInputs()
+            );
+        }
+    }
+
+    /**
+     * Write the observation of a snake straight into the (off-heap) buffer of a network input, e.g. into one row of
+     * a batch.
+     *
+     * @param snake Index of the snake.
+     * @param buffer Buffer into which the observation is written.
+     * @param offset Index of the buffer at which the first value is written.
+     */
+    public void buildStateObservation(final int snake, final DataBuffer buffer, final long offset) {
+        buildStateObservation(snake, features);
+        for (int i = 0; i < features.length; i++) {
+            buffer.put(offset + i, features[i]);
+        }
+    }
+
+    /**
+     * Put a snake onto specific cells, used by tests. A living snake is removed from its current cells first.
+     *
+     * @param snake Index of the snake.
+     * @param snakeCells Cells of the snake starting with the head.
+     * @param direction Direction in which the snake is moving.
+     */
+    public void setSnake(final int snake, final int[] snakeCells, final Direction direction) {
+        if (alive[snake]) {
+            removeSnake(snake);
+        }
+
+        bodies[snake].clear();
+        for (int i = snakeCells.length - 1; i >= 0; i--) {
+            bodies[snake].addFirst(snakeCells[i]);
+            occupancyGrid.occupy(snakeCells[i]);
+        }
+
+        snakeLengths[snake] = snakeCells.length;
+        directions[snake] = direction;
+        alive[snake] = true;
+        gameOverReasons[snake] = GameOverReason.NONE;
+        steps[snake] = 0;
+        assignNearestFood(snake);
+    }
+
+    /**
+     * Move a food to a specific cell, used by tests.
+     *
+     * @param slot Index of the food.
+     * @param cell Cell of the food.
+     */
+    public void setFood(final int slot, final int cell) {
+        foodSlots[getIndex(foodCells[slot])] = 0;
+        foodCells[slot] = cell;
+        foodSlots[getIndex(cell)] = slot + 1;
+        foodGenerations[slot]++;
+    }
+
+    public int getNumberOfSnakes() {
+        return bodies.length;
+    }
+
+    public int getNumberOfFood() {
+        return foodCells.length;
+    }
+
+    public int getNumberOfCells() {
+        return occupancyGrid.getNumberOfCells();
+    }
+
+    public boolean isAlive(final int snake) {
+        return alive[snake];
+    }
+
+    /**
+     * Get reason why the last life of the snake has ended.
+     *
+     * @param snake Index of the snake.
+     * @return Returns the reason, {@link GameOverReason#NONE} while the snake is alive.
+     */
+    public GameOverReason getGameOverReason(final int snake) {
+        return gameOverReasons[snake];
+    }
+
+    /**
+     * Get score of the current (or for a dead snake the last) life of the snake.
+     *
+     * @param snake Index of the snake.
+     * @return .
+     */
+    public int getScore(final int snake) {
+        return snakeLengths[snake] - INITIAL_SNAKE_LENGTH;
+    }
+
+    public int getSnakeLength(final int snake) {
+        return snakeLengths[snake];
+    }
+
+    /**
+     * Get number of moves since the snake was spawned.
+     *
+     * @param snake Index of the snake.
+     * @return .
+     */
+    public int getSteps(final int snake) {
+        return steps[snake];
+    }
+
+    /**
+     * Get cells of all parts of the snake in head-first ordering, empty for a dead snake.
+     *
+     * @param snake Index of the snake.
+     * @return .
+     */
+    public SnakeBody getSnakeBody(final int snake) {
+        return bodies[snake];
+    }
+
+    public int getHeadCell(final int snake) {
+        return bodies[snake].getFirst();
+    }
+
+    public int getFoodCell(final int slot) {
+        return foodCells[slot];
+    }
+
+    /**
+     * Get cell of the food the snake is heading for.
+     *
+     * @param snake Index of the snake.
+     * @return .
+     */
+    public int getTargetFoodCell(final int snake) {
+        if (targetGenerations[snake] != foodGenerations[targetFoods[snake]]) {
+            assignNearestFood(snake);
+        }
+
+        return foodCells[targetFoods[snake]];
+    }
+
+    /**
+     * Used to check if any snake part is located on the cell.
+     *
+     * @param cell .
+     * @return .
+     */
+    public boolean isOccupied(final int cell) {
+        return occupancyGrid.isOccupied(cell);
+    }
+    // endregion
+
+    // region Helper
+    private void resolveCollision(final int snake) {
+        final int headCell = bodies[snake].getFirst();
+
+        if (occupancyGrid.isOutsideTheGameBounds(headCell)) {
+            gameOverReasons[snake] = GameOverReason.WALL;
+        } else if (heads[getIndex(headCell)] > 1) {
+            gameOverReasons[snake] = GameOverReason.HEAD;
+        } else if (occupancyGrid.getCount(headCell) > 1) {
+            gameOverReasons[snake] = GameOverReason.BODY;
+        }
+    }
+
+    private void removeSnake(final int snake) {
+        final SnakeBody body = bodies[snake];
+        while (body.size() > 0) {
+            occupancyGrid.release(body.removeLast());
+        }
+
+        alive[snake] = false;
+    }
+
+    private void placeFood(final int slot) {
+        final int cell = getRandomFreeCell();
+        foodCells[slot] = cell;
+        foodSlots[getIndex(cell)] = slot + 1;
+    }
+
+    private void moveFood(final int slot) {
+        foodSlots[getIndex(foodCells[slot])] = 0;
+        foodGenerations[slot]++;
+
+        // Board is full, the food stays where it is until a snake dies
+        if (occupancyGrid.getFreeCellCount() < foodCells.length) {
+            foodSlots[getIndex(foodCells[slot])] = slot + 1;
+            return;
+        }
+
+        placeFood(slot);
+    }
+
+    private int getRandomFreeCell() {
+        // Free cells without food exist (callers check the free cell count), so this ends after a few draws
+        while (true) {
+            final int cell = occupancyGrid.getFreeCell(random.nextInt(occupancyGrid.getFreeCellCount()));
+            if (foodSlots[getIndex(cell)] == 0) {
+                return cell;
+            }
+        }
+    }
+
+    private void assignNearestFood(final int snake) {
+        if (bodies[snake].size() == 0) {
+            return;
+        }
+
+        final int headCell = bodies[snake].getFirst();
+        int nearest = 0;
+        int nearestDistance = Integer.MAX_VALUE;
+        for (int slot = 0; slot < foodCells.length; slot++) {
+            final int distance = Math.abs(PositionUtil.getCellX(foodCells[slot]) - PositionUtil.getCellX(headCell))
+                    + Math.abs(PositionUtil.getCellY(foodCells[slot]) - PositionUtil.getCellY(headCell));
+            if (distance < nearestDistance) {
+                nearest = slot;
+                nearestDistance = distance;
+            }
+        }
+
+        targetFoods[snake] = nearest;
+        targetGenerations[snake] = foodGenerations[nearest];
+    }
+
+    private int getFoodSlot(final int cell) {
+        return occupancyGrid.isOutsideTheGameBounds(cell) ? -1 : foodSlots[getIndex(cell)] - 1;
+    }
+
+    private int getIndex(final int cell) {
+        return PositionUtil.getCellY(cell) * occupancyGrid.getNumberOfCells() + PositionUtil.getCellX(cell);
+    }
+
+    private static Direction getNextDirection(final Direction currentDirection, final Action action) {
+        // Snake can not turn back onto its own neck, same as in the single snake game
+        switch (action) {
+            case MOVE_UP:
+                return currentDirection == Direction.DOWN ? currentDirection : Direction.UP;
+            case MOVE_RIGHT:
+                return currentDirection == Direction.LEFT ? currentDirection : Direction.RIGHT;
+            case MOVE_DOWN:
+                return currentDirection == Direction.UP ? currentDirection : Direction.DOWN;
+            default:
+                return currentDirection == Direction.RIGHT ? currentDirection : Direction.LEFT;
+        }
+    }
+    // endregion
+}
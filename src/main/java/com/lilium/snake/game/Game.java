@@ -1,289 +1,170 @@
 package com.lilium.snake.game;
 
+import com.lilium.snake.game.helper.BoardSnapshot;
 import com.lilium.snake.game.helper.Direction;
-import com.lilium.snake.game.helper.Position;
 import com.lilium.snake.game.util.GameUtil;
 import com.lilium.snake.game.util.PositionUtil;
-import com.lilium.snake.game.util.RewardUtil;
-import com.lilium.snake.network.Action;
-import com.lilium.snake.network.GameState;
-import com.lilium.snake.network.util.GameStateUtil;
-import com.lilium.snake.network.util.NetworkUtil;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import javax.swing.*;
 import java.awt.*;
-import java.awt.event.ActionEvent;
-import java.awt.event.ActionListener;
-import java.util.Arrays;
-import java.util.Objects;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
 
 /**
- * Implementation of a simple snake game with some extra methods needed for the network.
+ * Swing view of the snake game. Game rules are implemented in {@link GameEngine}, this panel only draws its state.
  * Original implementation can be found here https://github.com/janbodnar/Java-Snake-Game
+ * <p>
+ * The engine runs on its own thread (e.g. the training thread) and publishes board snapshots through a
+ * {@link SnapshotPublisher}, the panel draws the latest one at a fixed frame rate on the event dispatch thread. So the
+ * engine is never read while it is changed, and it does not wait for painting. Rendering is turned on and off with the
+ * V key or {@link #setRendering(boolean)}.
  *
  * @author mirza
  */
-public class Game extends JPanel implements ActionListener {
+public class Game extends JPanel {
     // region Member
-    private static final Logger LOG = LoggerFactory.getLogger(Game.class);
-
     private static final Image FOOD_IMAGE = GameUtil.getFoodImage();
     private static final Image TAIL_IMAGE = GameUtil.getTailImage();
     private static final Image HEAD_IMAGE = GameUtil.getHeadImage();
     private static final Image OBSERVATION_IMAGE = GameUtil.getObservationImage();
 
-    // Used to keep track of all snake parts (positions of the tail and head)
-    private transient Position[] snakePosition = new Position[900];
-    private Direction currentDirection = Direction.RIGHT;
-    private boolean inGame = true;
+    // Directions in which the snake observes its surrounding, same order as in the observation
+    private static final Direction[] OBSERVED_DIRECTIONS = {
+            Direction.UP, Direction.RIGHT, Direction.DOWN, Direction.LEFT
+    };
+
+    private static final int DEFAULT_FRAMES_PER_SECOND = 30;
 
-    private transient Position foodPosition;
-    private int snakeLength;
+    private final transient GameEngine engine;
+    private final transient SnapshotPublisher publisher = new SnapshotPublisher();
+    // Only accessed by the event dispatch thread
+    private transient BoardSnapshot snapshot;
     // endregion
 
     // region Setup
-    public Game() {
-        setBackground(Color.WHITE);
-        setFocusable(true);
-        setPreferredSize(new Dimension(GameUtil.GAME_DIMENSIONS, GameUtil.GAME_DIMENSIONS));
-
-        initializeGame();
+    public Game(final GameEngine engine) {
+        this(engine, DEFAULT_FRAMES_PER_SECOND);
     }
-    // endregion
 
-    // region Implementation
-    @Override
-    public void actionPerformed(ActionEvent e) {
-        if (isOngoing()) {
-            if (isFoodEaten()) {
-                // Increase player length
-                snakeLength++;
+    /**
+     * @param engine Engine to draw.
+     * @param framesPerSecond Number of times per second the latest snapshot of the engine is drawn.
+     */
+    public Game(final GameEngine engine, final int framesPerSecond) {
+        this.engine = engine;
 
-                // Set food on a new position
-                setFoodPosition();
-            } else {
-                final Position headPosition = getHeadPosition();
-                inGame = !headPosition.isOutsideTheGameBounds();
+        setBackground(Color.WHITE);
+        setFocusable(true);
+        final int dimensions = engine.getNumberOfCells() * GameUtil.PLAYER_SIZE;
+        setPreferredSize(new Dimension(dimensions, dimensions));
 
-                if (inGame) { // We only need to check for body part collision if we are still in the game
-                    checkIfPlayerHeadIsCollidingWithOtherBodyParts(headPosition);
+        engine.setUpdateListener(publisher);
+        new Timer(1000 / framesPerSecond, event -> onFrame()).start();
+
+        addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(final KeyEvent event) {
+                if (event.getKeyCode() == KeyEvent.VK_V) {
+                    setRendering(!isRendering());
                 }
             }
-        }
-
-        if (!inGame) {
-            LOG.debug("Game is over :(");
-        }
-
-        repaint();
+        });
     }
+    // endregion
 
+    // region Implementation
     @Override
     protected void paintComponent(final Graphics graphics) {
         super.paintComponent(graphics);
 
-        draw(graphics);
-    }
-
-    /**
-     * Get current game score.
-     *
-     * @return .
-     */
-    public int getScore() {
-        return snakeLength - 3;
-    }
-
-    /**
-     * Move the player and check for collisions
-     */
-    public void move() {
-        // Copy positions (e.g. head position is not moved to the top of the body, body - 1 is not body - 2 and so on)
-        if (snakeLength - 1 >= 0) System.arraycopy(snakePosition, 0, snakePosition, 1, snakeLength - 1);
-
-        // Previous head position is currently at index 1
-        final Position previousHeadPosition = snakePosition[1];
-
-        // Set new head position
-        snakePosition[0] = PositionUtil.getNextPosition(previousHeadPosition, currentDirection);
-
-        // As we do not use any key pressed events to move our player we need "manually" notify about performed action
-        actionPerformed(null);
-    }
-
-    /**
-     * Change direction based on forwarded action.
-     *
-     * @param action Action based on which direction is changed.
-     */
-    public void changeDirection(final Action action) {
-        LOG.debug("Current direction {}, changing to {}", currentDirection, action);
-
-        switch (action) {
-            case MOVE_UP:
-                if (currentDirection == Direction.DOWN) break;
-                currentDirection = Direction.UP;
-                break;
-            case MOVE_RIGHT:
-                if (currentDirection == Direction.LEFT) break;
-                currentDirection = Direction.RIGHT;
-                break;
-            case MOVE_DOWN:
-                if (currentDirection == Direction.UP) break;
-                currentDirection = Direction.DOWN;
-                break;
-            case MOVE_LEFT:
-                if (currentDirection == Direction.RIGHT) break;
-                currentDirection = Direction.LEFT;
-                break;
+        if (!isRendering()) {
+            graphics.drawString("Rendering is off, press V to turn it on", 10, 20);
+            return;
         }
-    }
-
-    /**
-     * Initializes game world and places the food and player on starting position
-     */
-    public GameState initializeGame() {
-        snakeLength = 3;
-        snakePosition = new Position[900];
 
-        // Set snake on it's default position
-        for (int i = 0; i < snakeLength; i++) {
-            snakePosition[i] = new Position(50 - i * GameUtil.PLAYER_SIZE, 50);
+        if (snapshot != null) {
+            paintSnapshot(graphics, snapshot);
         }
-
-        // Set food position
-        setFoodPosition();
-
-        // Mark that player is in game
-        inGame = true;
-
-        // Return observation of the current game state
-        return buildStateObservation();
     }
 
     /**
-     * Used to check if the game is still ongoing.
+     * Draw the snapshot, e.g. into an offscreen image.
      *
-     * @return Returns true if player is still alive and in the game.
+     * @param graphics Graphics to draw with.
+     * @param snapshot Snapshot of the board.
      */
-    public boolean isOngoing() {
-        return inGame;
+    public void paintSnapshot(final Graphics graphics, final BoardSnapshot snapshot) {
+        draw(graphics, snapshot);
     }
 
-    /**
-     * Used to end game.
-     */
-    public void endGame() {
-        this.inGame = false;
+    public boolean isRendering() {
+        return publisher.isEnabled();
     }
 
     /**
-     * Get current game state observation. Snake can observe 4 states. They are positions in 4 directions around the
-     * head. For example if head is at pos(50 50) => pos(x y), snake can observe position UP pos(50 40), DOWN pos(50 60),
-     * RIGHT pos(60 50) and LEFT pos(40 50).
+     * Turn rendering on or off. While it is off the engine does not copy its board at all.
      *
-     * @return Returns an object representing current game state observation.
+     * @param rendering .
      */
-    public GameState buildStateObservation() {
-        return new GameState(new double[] {
-                GameStateUtil.getStateForDirection(snakePosition, foodPosition, Direction.UP),
-                GameStateUtil.getStateForDirection(snakePosition, foodPosition, Direction.RIGHT),
-                GameStateUtil.getStateForDirection(snakePosition, foodPosition, Direction.DOWN),
-                GameStateUtil.getStateForDirection(snakePosition, foodPosition, Direction.LEFT),
-        });
+    public void setRendering(final boolean rendering) {
+        publisher.setEnabled(rendering);
+        repaint();
     }
 
     /**
-     * Used to calculate the reward for action that was taken.
+     * Get the engine this view is drawing.
      *
-     * @param action Taken action.
-     * @return Returns calculated reward.
+     * @return .
      */
-    public double calculateRewardForActionToTake(final Action action) {
-        return RewardUtil.calculateRewardForActionToTake(
-                action,
-                snakePosition,
-                foodPosition
-        );
+    public GameEngine getEngine() {
+        return engine;
     }
     // endregion
 
     // region Helper
-    private void draw(final Graphics graphics) {
-        if (!isOngoing()) {
+    private void onFrame() {
+        // Nothing new is published if the engine has not moved since the last frame
+        final BoardSnapshot latest = publisher.take();
+        if (latest != null) {
+            snapshot = latest;
+            repaint();
+        }
+    }
+
+    private void draw(final Graphics graphics, final BoardSnapshot snapshot) {
+        if (!snapshot.isOngoing()) {
             return;
         }
 
         // Draw food
-        graphics.drawImage(FOOD_IMAGE, foodPosition.getX(), foodPosition.getY(), this);
+        final int foodCell = snapshot.getFoodCell();
+        graphics.drawImage(FOOD_IMAGE, PositionUtil.getPixelX(foodCell), PositionUtil.getPixelY(foodCell), this);
 
         // Draw snake
-        for (int i = 0; i < snakeLength; i++) {
-            // Position of one of the snake parts (head or tail)
-            final Position pos = snakePosition[i];
-            if (pos == null) {
-                continue;
-            }
+        for (int i = 0; i < snapshot.getSnakeLength(); i++) {
+            // Cell of one of the snake parts (head or tail)
+            final int cell = snapshot.getSnakeCell(i);
 
             // First item is always head
-            graphics.drawImage(i == 0 ? HEAD_IMAGE : TAIL_IMAGE, pos.getX(), pos.getY(), this);
+            graphics.drawImage(
+                    i == 0 ? HEAD_IMAGE : TAIL_IMAGE,
+                    PositionUtil.getPixelX(cell),
+                    PositionUtil.getPixelY(cell),
+                    this
+            );
         }
 
-        final Position headPosition = getHeadPosition();
-        final Position[] observations = new Position[NetworkUtil.NUMBER_OF_INPUTS];
-        // If we decide to have more inputs we need to modify the code to get more then just next position
-        observations[0] = PositionUtil.getNextPosition(headPosition, Direction.UP);
-        observations[1] = PositionUtil.getNextPosition(headPosition, Direction.RIGHT);
-        observations[2] = PositionUtil.getNextPosition(headPosition, Direction.DOWN);
-        observations[3] = PositionUtil.getNextPosition(headPosition, Direction.LEFT);
-        for (int i = 0; i < observations.length; i++) {
-            final Position pos = observations[i];
-            if (pos == null) {
-                continue;
-            }
+        // If we decide to have more inputs we need to modify the code to get more then just next cell
+        final int headCell = snapshot.getHeadCell();
+        for (final Direction direction : OBSERVED_DIRECTIONS) {
+            final int cell = PositionUtil.getNextCell(headCell, direction);
 
             // Draw what snake can see
-            graphics.drawImage(OBSERVATION_IMAGE, pos.getX(), pos.getY(), this);
+            graphics.drawImage(OBSERVATION_IMAGE, PositionUtil.getPixelX(cell), PositionUtil.getPixelY(cell), this);
         }
 
         // Synchronize graphics state
         Toolkit.getDefaultToolkit().sync();
     }
-
-    private void setFoodPosition() {
-        foodPosition = new Position(
-                (int) (Math.random() * 29) * GameUtil.PLAYER_SIZE,
-                (int) (Math.random() * 29)  * GameUtil.PLAYER_SIZE
-        );
-
-        // Do not set food onto snake
-        if (Arrays.asList(snakePosition).contains(foodPosition)) {
-            setFoodPosition();
-        }
-    }
-
-    private boolean isFoodEaten() {
-        // Return true if snakes head is on the food position (snake if having a snack)
-        return foodPosition.equals(getHeadPosition());
-    }
-
-    private void checkIfPlayerHeadIsCollidingWithOtherBodyParts(final Position headPosition) {
-        // Count how many times is snake head contained in the snake position array. We expect only to find it once.
-        // If there is more then one that means that the head is overlapping the body and we can end the game.
-        final long matches = Arrays.stream(snakePosition)
-                .filter(Objects::nonNull)
-                .filter(pos -> pos.equals(headPosition))
-                .count();
-
-        if (matches > 1) {
-            endGame();
-        }
-    }
-
-    private Position getHeadPosition() {
-        return snakePosition[0];
-    }
     // endregion
 }
@@ -0,0 +1,499 @@
+package com.lilium.snake.game;
+
+import com.lilium.snake.events.EpisodeEndEvent;
+import com.lilium.snake.events.FoodSpawnEvent;
+import com.lilium.snake.game.helper.Direction;
+import com.lilium.snake.game.helper.EpisodeRandom;
+import com.lilium.snake.game.helper.GameOverReason;
+import com.lilium.snake.game.helper.OccupancyGrid;
+import com.lilium.snake.game.helper.Position;
+import com.lilium.snake.game.helper.SnakeBody;
+import com.lilium.snake.game.util.GameUtil;
+import com.lilium.snake.game.util.PositionUtil;
+import com.lilium.snake.game.util.RewardUtil;
+import com.lilium.snake.network.Action;
+import com.lilium.snake.network.FeatureSet;
+import com.lilium.snake.network.GameState;
+import com.lilium.snake.network.util.FeatureUtil;
+import com.lilium.snake.network.util.GameStateUtil;
+import com.lilium.snake.network.util.NetworkUtil;
+import jdk.jfr.EventType;
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.SplittableRandom;
+
+/**
+ * Headless implementation of the snake game rules. It does not depend on AWT/Swing so it can be used for training on
+ * machines without a display and many instances can be created in one JVM. {@link Game} is an optional view on top of
+ * it.
+ *
+ * @author mirza
+ */
+public class GameEngine {
+    // region Member
+    private static final Logger LOG = LoggerFactory.getLogger(GameEngine.class);
+    // Checked before an event is created, so the step path allocates nothing while the events are not recorded
+    private static final EventType FOOD_SPAWN_EVENT_TYPE = EventType.getEventType(FoodSpawnEvent.class);
+    private static final EventType EPISODE_END_EVENT_TYPE = EventType.getEventType(EpisodeEndEvent.class);
+
+    // Used to keep track of all snake parts (positions of the tail and head), can hold a snake covering the board
+    private final SnakeBody snakeBody;
+    // Used to check in constant time if a cell is occupied by the snake, kept in step with snakeBody
+    private final OccupancyGrid occupancyGrid;
+    private Direction currentDirection = Direction.RIGHT;
+    private boolean inGame = true;
+    private GameOverReason gameOverReason = GameOverReason.NONE;
+    // Number of moves since the game was initialized
+    private int steps;
+
+    private int foodCell;
+    private int snakeLength;
+
+    // Each game has its own random generators so that games on different threads do not share any state. Seed of
+    // every episode is drawn from seeds, the episode itself (e.g. food placement) only uses episodeRandom.
+    private final SplittableRandom seeds;
+    private final EpisodeRandom episodeRandom = new EpisodeRandom();
+    private long episodeSeed;
+
+    // Reused when writing the observation into a buffer
+    private final double[] features = new double[NetworkUtil.NUMBER_OF_INPUTS];
+
+    // Notified after each move, used by the view to repaint
+    private GameUpdateListener updateListener;
+    // endregion
+
+    // region Setup
+    public GameEngine() {
+        this(new SplittableRandom());
+    }
+
+    /**
+     * @param seeds Random generator from which the seed of every episode is drawn. Games created with generators of
+     *              the same seed (e.g. split from one run seed) play the same episodes.
+     */
+    public GameEngine(final SplittableRandom seeds) {
+        this(GameUtil.DEFAULT_NUMBER_OF_CELLS, seeds);
+    }
+
+    /**
+     * @param numberOfCells Number of cells in one row or column of the board, between
+     *                      {@link GameUtil#MIN_NUMBER_OF_CELLS} and {@link GameUtil#MAX_NUMBER_OF_CELLS}.
+     * @param seeds Random generator from which the seed of every episode is drawn.
+     */
+    public GameEngine(final int numberOfCells, final SplittableRandom seeds) {
+        this.occupancyGrid = new OccupancyGrid(numberOfCells);
+        this.snakeBody = new SnakeBody(numberOfCells * numberOfCells + 1);
+        this.seeds = seeds;
+
+        initializeGame();
+    }
+    // endregion
+
+    // region Implementation
+    /**
+     * Get current game score.
+     *
+     * @return .
+     */
+    public int getScore() {
+        return snakeLength - 3;
+    }
+
+    /**
+     * Move the player and check for collisions
+     */
+    public void move() {
+        steps++;
+
+        final int nextHeadCell = PositionUtil.getNextCell(getHeadCell(), currentDirection);
+
+        // Drop the tail, unless the snake has eaten in which case the tail is kept so that the snake grows
+        if (snakeBody.size() >= snakeLength) {
+            occupancyGrid.release(snakeBody.removeLast());
+        }
+
+        // Set new head position
+        snakeBody.addFirst(nextHeadCell);
+        occupancyGrid.occupy(nextHeadCell);
+
+        checkGameState();
+
+        if (updateListener != null) {
+            updateListener.onGameUpdated(this);
+        }
+    }
+
+    /**
+     * Perform one environment step. Direction is changed based on the action, the snake is moved and the reward for the
+     * action is calculated.
+     *
+     * @param action Action to take.
+     * @return Returns calculated reward.
+     */
+    public double step(final Action action) {
+        changeDirection(action);
+        move();
+
+        return calculateRewardForActionToTake(action);
+    }
+
+    /**
+     * Change direction based on forwarded action.
+     *
+     * @param action Action based on which direction is changed.
+     */
+    public void changeDirection(final Action action) {
+        LOG.debug("Current direction {}, changing to {}", currentDirection, action);
+
+        switch (action) {
+            case MOVE_UP:
+                if (currentDirection == Direction.DOWN) break;
+                currentDirection = Direction.UP;
+                break;
+            case MOVE_RIGHT:
+                if (currentDirection == Direction.LEFT) break;
+                currentDirection = Direction.RIGHT;
+                break;
+            case MOVE_DOWN:
+                if (currentDirection == Direction.UP) break;
+                currentDirection = Direction.DOWN;
+                break;
+            case MOVE_LEFT:
+                if (currentDirection == Direction.RIGHT) break;
+                currentDirection = Direction.LEFT;
+                break;
+        }
+    }
+
+    /**
+     * Initializes game world and places the food and player on starting position
+     */
+    public GameState initializeGame() {
+        reset();
+
+        // Return observation of the current game state
+        return buildStateObservation();
+    }
+
+    /**
+     * Same as {@link #initializeGame()} but does not build the observation, so it does not allocate anything.
+     */
+    public void reset() {
+        reset(seeds.nextLong());
+    }
+
+    /**
+     * Start a new episode from the seed. Same seed and same actions always play the same episode, so any episode can
+     * be replayed by its {@link #getEpisodeSeed()}.
+     *
+     * @param episodeSeed Seed of the episode.
+     */
+    public void reset(final long episodeSeed) {
+        // Episode which is still ongoing is cut short by the new one
+        if (inGame && steps > 0) {
+            commitEpisodeEndEvent(EpisodeEndEvent.TRUNCATED);
+        }
+
+        this.episodeSeed = episodeSeed;
+        episodeRandom.setSeed(episodeSeed);
+
+        snakeLength = 3;
+        snakeBody.clear();
+        occupancyGrid.clear();
+
+        // Set snake on it's default position, starting from the end of the tail
+        for (int i = snakeLength - 1; i >= 0; i--) {
+            final int cell = PositionUtil.toCell(5 - i, 5);
+            snakeBody.addFirst(cell);
+            occupancyGrid.occupy(cell);
+        }
+
+        // Set food position
+        setFoodPosition();
+
+        // Snake starts heading right, the direction of the previous episode must not leak into this one
+        currentDirection = Direction.RIGHT;
+
+        // Mark that player is in game
+        inGame = true;
+        gameOverReason = GameOverReason.NONE;
+        steps = 0;
+    }
+
+    /**
+     * Put the game into a specific state, used by benchmarks and tests to start with a longer snake.
+     *
+     * @param snakeCells Cells of the snake starting with the head.
+     * @param direction Direction in which the snake is moving.
+     * @param foodCell Cell of the food.
+     */
+    public void setState(final int[] snakeCells, final Direction direction, final int foodCell) {
+        snakeLength = snakeCells.length;
+        snakeBody.clear();
+        occupancyGrid.clear();
+
+        for (int i = snakeCells.length - 1; i >= 0; i--) {
+            snakeBody.addFirst(snakeCells[i]);
+            occupancyGrid.occupy(snakeCells[i]);
+        }
+
+        this.foodCell = foodCell;
+        currentDirection = direction;
+        inGame = true;
+        gameOverReason = GameOverReason.NONE;
+        steps = 0;
+    }
+
+    /**
+     * Used to check if the game is still ongoing.
+     *
+     * @return Returns true if player is still alive and in the game.
+     */
+    public boolean isOngoing() {
+        return inGame;
+    }
+
+    /**
+     * Used to end game.
+     */
+    public void endGame() {
+        endGame(GameOverReason.ENDED);
+    }
+
+    /**
+     * Get reason why the game has ended.
+     *
+     * @return Returns the reason, {@link GameOverReason#NONE} while the game is ongoing.
+     */
+    public GameOverReason getGameOverReason() {
+        return gameOverReason;
+    }
+
+    /**
+     * Get seed of the current episode.
+     *
+     * @return .
+     */
+    public long getEpisodeSeed() {
+        return episodeSeed;
+    }
+
+    /**
+     * Get number of moves since the game was initialized.
+     *
+     * @return .
+     */
+    public int getSteps() {
+        return steps;
+    }
+
+    /**
+     * Get current game state observation. Snake can observe 4 states. They are positions in 4 directions around the
+     * head. For example if head is at pos(50 50) => pos(x y), snake can observe position UP pos(50 40), DOWN pos(50 60),
+     * RIGHT pos(60 50) and LEFT pos(40 50).
+     *
+     * @return Returns an object representing current game state observation.
+     */
+    public GameState buildStateObservation() {
+        final INDArray observation = Nd4j.createUninitialized(NetworkUtil.DATA_TYPE, NetworkUtil.NUMBER_OF_INPUTS);
+        buildStateObservation(observation.data(), 0);
+
+        return new GameState(observation);
+    }
+
+    /**
+     * Allocation-free variant of {@link #buildStateObservation()}, writes the observation into forwarded array.
+     *
+     * @param observation Array into which the observation is written, needs to hold at least
+     *                    {@link NetworkUtil#NUMBER_OF_INPUTS} values.
+     */
+    public void buildStateObservation(final double[] observation) {
+        final int headCell = getHeadCell();
+        observation[0] = GameStateUtil.getStateForDirection(headCell, occupancyGrid, foodCell, Direction.UP);
+        observation[1] = GameStateUtil.getStateForDirection(headCell, occupancyGrid, foodCell, Direction.RIGHT);
+        observation[2] = GameStateUtil.getStateForDirection(headCell, occupancyGrid, foodCell, Direction.DOWN);
+        observation[3] = GameStateUtil.getStateForDirection(headCell, occupancyGrid, foodCell, Direction.LEFT);
+
+        if (NetworkUtil.FEATURE_SET == FeatureSet.EXTENDED) {
+            FeatureUtil.writeExtendedFeatures(
+                    headCell,
+                    foodCell,
+                    occupancyGrid,
+                    snakeBody,
+                    snakeLength,
+                    observation,
+                    FeatureSet.BASIC.getNumberOfInputs()
+            );
+        }
+    }
+
+    /**
+     * Allocation-free variant of {@link #buildStateObservation()}, writes the observation straight into the (off-heap)
+     * buffer of a network input, e.g. into one row of a batch.
+     *
+     * @param buffer Buffer into which the observation is written.
+     * @param offset Index of the buffer at which the first value is written.
+     */
+    public void buildStateObservation(final DataBuffer buffer, final long offset) {
+        buildStateObservation(features);
+        for (int i = 0; i < features.length; i++) {
+            buffer.put(offset + i, features[i]);
+        }
+    }
+
+    /**
+     * Used to calculate the reward for action that was taken.
+     *
+     * @param action Taken action.
+     * @return Returns calculated reward.
+     */
+    public double calculateRewardForActionToTake(final Action action) {
+        return RewardUtil.calculateRewardForActionToTake(
+                action,
+                getHeadCell(),
+                occupancyGrid,
+                foodCell
+        );
+    }
+
+    /**
+     * Used to register a listener which is notified after every move (e.g. the Swing view).
+     *
+     * @param updateListener Listener to notify, or null to remove the current one.
+     */
+    public void setUpdateListener(final GameUpdateListener updateListener) {
+        this.updateListener = updateListener;
+    }
+
+    /**
+     * Get cells of all snake parts in head-first ordering. Directly after the snake has eaten the body contains
+     * one part less than {@link #getSnakeLength()}, the missing part is added with the next move.
+     *
+     * @return .
+     */
+    public SnakeBody getSnakeBody() {
+        return snakeBody;
+    }
+
+    /**
+     * Get the number of cells in one row or column of the board.
+     *
+     * @return .
+     */
+    public int getNumberOfCells() {
+        return occupancyGrid.getNumberOfCells();
+    }
+
+    public int getSnakeLength() {
+        return snakeLength;
+    }
+
+    public int getFoodCell() {
+        return foodCell;
+    }
+
+    public int getHeadCell() {
+        return snakeBody.getFirst();
+    }
+
+    /**
+     * Get food position in pixel coordinates. Allocates a new object, on the game step path use {@link #getFoodCell()}.
+     *
+     * @return .
+     */
+    public Position getFoodPosition() {
+        return PositionUtil.toPosition(foodCell);
+    }
+
+    /**
+     * Get head position in pixel coordinates. Allocates a new object, on the game step path use {@link #getHeadCell()}.
+     *
+     * @return .
+     */
+    public Position getHeadPosition() {
+        return PositionUtil.toPosition(getHeadCell());
+    }
+    // endregion
+
+    // region Helper
+    private void checkGameState() {
+        if (isOngoing()) {
+            if (isFoodEaten()) {
+                // Increase player length
+                snakeLength++;
+
+                // Set food on a new position
+                setFoodPosition();
+            } else {
+                final int headCell = getHeadCell();
+                if (occupancyGrid.isOutsideTheGameBounds(headCell)) {
+                    endGame(GameOverReason.WALL);
+                } else { // We only need to check for body part collision if we are still in the game
+                    checkIfPlayerHeadIsCollidingWithOtherBodyParts(headCell);
+                }
+            }
+        }
+
+        if (!inGame) {
+            LOG.debug("Game is over :(");
+        }
+    }
+
+    private void setFoodPosition() {
+        // Snake covers the whole board so there is nowhere to put the food
+        if (occupancyGrid.getFreeCellCount() == 0) {
+            endGame(GameOverReason.WIN);
+            return;
+        }
+
+        // Only free cells are sampled so food is never set onto snake
+        foodCell = occupancyGrid.getFreeCell(episodeRandom.nextInt(occupancyGrid.getFreeCellCount()));
+
+        if (FOOD_SPAWN_EVENT_TYPE.isEnabled()) {
+            final FoodSpawnEvent event = new FoodSpawnEvent();
+            event.x = PositionUtil.getCellX(foodCell);
+            event.y = PositionUtil.getCellY(foodCell);
+            event.freeCells = occupancyGrid.getFreeCellCount();
+            event.commit();
+        }
+    }
+
+    private boolean isFoodEaten() {
+        // Return true if snakes head is on the food position (snake if having a snack)
+        return foodCell == getHeadCell();
+    }
+
+    private void endGame(final GameOverReason reason) {
+        if (inGame) {
+            gameOverReason = reason;
+            commitEpisodeEndEvent(reason.name());
+        }
+
+        inGame = false;
+    }
+
+    private void commitEpisodeEndEvent(final String cause) {
+        if (EPISODE_END_EVENT_TYPE.isEnabled()) {
+            final EpisodeEndEvent event = new EpisodeEndEvent();
+            event.score = getScore();
+            event.length = snakeLength;
+            event.steps = steps;
+            event.cause = cause;
+            event.episodeSeed = episodeSeed;
+            event.commit();
+        }
+    }
+
+    private void checkIfPlayerHeadIsCollidingWithOtherBodyParts(final int headCell) {
+        // Count how many snake parts are located on the head cell. We expect only to find the head itself.
+        // If there is more then one that means that the head is overlapping the body and we can end the game.
+        if (occupancyGrid.getCount(headCell) > 1) {
+            endGame(GameOverReason.BODY);
+        }
+    }
+    // endregion
+}
@@ -0,0 +1,16 @@
+package com.lilium.snake.game;
+
+/**
+ * Listener notified by {@link GameEngine} whenever the game state has changed.
+ *
+ * @author mirza
+ */
+@FunctionalInterface
+public interface GameUpdateListener {
+    /**
+     * Called after the game state has changed (e.g. after the snake has moved).
+     *
+     * @param engine Engine which state has changed.
+     */
+    void onGameUpdated(GameEngine engine);
+}
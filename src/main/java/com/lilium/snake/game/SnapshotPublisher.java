@@ -0,0 +1,51 @@
+package com.lilium.snake.game;
+
+import com.lilium.snake.game.helper.BoardSnapshot;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lock-free single-slot handoff of board snapshots from the thread running the game to a renderer. A snapshot is only
+ * copied when the renderer has taken the previous one, so the game thread creates at most one snapshot per rendered
+ * frame and states in between are skipped. While publishing is disabled an update costs a single volatile read.
+ *
+ * @author mirza
+ */
+public class SnapshotPublisher implements GameUpdateListener {
+    private final AtomicReference<BoardSnapshot> slot = new AtomicReference<>();
+    private volatile boolean enabled = true;
+
+    @Override
+    public void onGameUpdated(final GameEngine engine) {
+        if (!enabled || slot.get() != null) {
+            return;
+        }
+
+        slot.set(BoardSnapshot.of(engine));
+    }
+
+    /**
+     * Take the published snapshot, the slot is emptied so that the game thread publishes the next one.
+     *
+     * @return Returns snapshot, or null if none has been published since the last call.
+     */
+    public BoardSnapshot take() {
+        return slot.getAndSet(null);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Turn publishing on or off, can be called from any thread while the game is running.
+     *
+     * @param enabled .
+     */
+    public void setEnabled(final boolean enabled) {
+        this.enabled = enabled;
+        if (!enabled) {
+            slot.set(null);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.lilium.snake.game.helper;
+
+import com.lilium.snake.game.GameEngine;
+
+/**
+ * Immutable copy of the board at one point in time, used to hand the state of a running game to another thread
+ * (e.g. the Swing renderer) without sharing the mutable engine with it.
+ *
+ * @author mirza
+ */
+public final class BoardSnapshot {
+    private final int[] snakeCells;
+    private final int foodCell;
+    private final boolean ongoing;
+    private final int score;
+
+    private BoardSnapshot(final int[] snakeCells, final int foodCell, final boolean ongoing, final int score) {
+        this.snakeCells = snakeCells;
+        this.foodCell = foodCell;
+        this.ongoing = ongoing;
+        this.score = score;
+    }
+
+    /**
+     * Copy the current board of the engine. Has to be called by the thread running the engine.
+     *
+     * @param engine .
+     * @return Returns created snapshot.
+     */
+    public static BoardSnapshot of(final GameEngine engine) {
+        final SnakeBody snakeBody = engine.getSnakeBody();
+        final int[] snakeCells = new int[snakeBody.size()];
+        for (int i = 0; i < snakeCells.length; i++) {
+            snakeCells[i] = snakeBody.get(i);
+        }
+
+        return new BoardSnapshot(snakeCells, engine.getFoodCell(), engine.isOngoing(), engine.getScore());
+    }
+
+    public int getSnakeLength() {
+        return snakeCells.length;
+    }
+
+    /**
+     * Get cell of a snake part in head-first ordering, index 0 is always the head.
+     *
+     * @param index Index of the snake part.
+     * @return Returns cell of the snake part.
+     */
+    public int getSnakeCell(final int index) {
+        return snakeCells[index];
+    }
+
+    public int getHeadCell() {
+        return snakeCells[0];
+    }
+
+    public int getFoodCell() {
+        return foodCell;
+    }
+
+    public boolean isOngoing() {
+        return ongoing;
+    }
+
+    public int getScore() {
+        return score;
+    }
+}
@@ -0,0 +1,47 @@
+package com.lilium.snake.game.helper;
+
+/**
+ * Random generator used within one episode. It uses the same SplitMix64 algorithm as
+ * {@link java.util.SplittableRandom} but can be re-seeded, so a game can start every episode from its own seed
+ * without allocating a new generator.
+ *
+ * @author mirza
+ */
+public class EpisodeRandom {
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private long state;
+
+    /**
+     * Restart the sequence from the seed. Same seed always gives the same sequence.
+     *
+     * @param seed .
+     */
+    public void setSeed(final long seed) {
+        state = seed;
+    }
+
+    public long nextLong() {
+        state += GOLDEN_GAMMA;
+
+        long z = state;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Get a random number between 0 (inclusive) and the bound (exclusive).
+     *
+     * @param bound Upper bound, must be positive.
+     * @return .
+     */
+    public int nextInt(final int bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("Bound must be positive but was " + bound);
+        }
+
+        // Scale the upper 32 bits into the range, the bias is negligible for the small bounds used by the game
+        return (int) (((nextLong() >>> 32) * bound) >>> 32);
+    }
+}
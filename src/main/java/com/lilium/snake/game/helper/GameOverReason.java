@@ -0,0 +1,33 @@
+package com.lilium.snake.game.helper;
+
+/**
+ * Enum containing reasons why a game has ended.
+ *
+ * @author mirza
+ */
+public enum GameOverReason {
+    /**
+     * Game is still ongoing.
+     */
+    NONE,
+    /**
+     * Snake has moved outside the game bounds.
+     */
+    WALL,
+    /**
+     * Snake head has run into its own body, or in an arena into the body of another snake.
+     */
+    BODY,
+    /**
+     * Snake head has run into the head of another snake in an arena, both snakes die.
+     */
+    HEAD,
+    /**
+     * Snake has filled the whole board, there is no free cell left for the food.
+     */
+    WIN,
+    /**
+     * Game was ended from the outside (e.g. by calling endGame).
+     */
+    ENDED
+}
@@ -0,0 +1,314 @@
+package com.lilium.snake.game.helper;
+
+import com.lilium.snake.game.util.GameUtil;
+import com.lilium.snake.game.util.PositionUtil;
+
+import java.util.Arrays;
+
+/**
+ * Occupancy index of the game board. For every cell it keeps the number of snake parts located on it, so checking if
+ * a cell is occupied is a constant-time lookup instead of a scan over the whole snake. It is updated incrementally
+ * as the head advances and the tail retracts. Cells are packed coordinates, see {@link PositionUtil}.
+ * <p>
+ * Free cells are additionally kept in an index-swap list, a cell is removed from it when it becomes occupied and added
+ * back when it becomes free, so a random free cell can be picked in constant time however long the snake is.
+ * <p>
+ * Occupied cells of every row, column and diagonal are also kept as bit masks, so the nearest snake part along a
+ * {@link Ray} is found with a bit scan instead of walking the cells. Every line has one long per 64 cells, so a scan
+ * checks at most numberOfCells / 64 words.
+ * <p>
+ * Size of the board is set per grid, all storage is sized to it (about 10 bytes per cell).
+ *
+ * @author mirza
+ */
+public class OccupancyGrid {
+    private final int numberOfCells;
+    // Number of snake parts per cell. A cell can be occupied twice for a moment when the head runs into the body.
+    private final byte[] cells;
+    // Indexes of free cells, only the first freeCellCount entries are valid
+    private final int[] freeCells;
+    // Position of every free cell index inside freeCells
+    private final int[] freeCellSlots;
+    private int freeCellCount;
+
+    // Bit x of a row mask (bit y of a column mask) is set if the cell is occupied. Diagonals are indexed by x - y and
+    // anti-diagonals by x + y, in both bit x is set if the cell is occupied. Masks of all lines of one kind are stored
+    // one after the other, every mask takes wordsPerLine longs.
+    private final int wordsPerLine;
+    private final long[] rowMasks;
+    private final long[] columnMasks;
+    private final long[] diagonalMasks;
+    private final long[] antiDiagonalMasks;
+
+    public OccupancyGrid() {
+        this(GameUtil.DEFAULT_NUMBER_OF_CELLS);
+    }
+
+    /**
+     * @param numberOfCells Number of cells in one row or column of the board.
+     */
+    public OccupancyGrid(final int numberOfCells) {
+        if (numberOfCells < GameUtil.MIN_NUMBER_OF_CELLS || numberOfCells > GameUtil.MAX_NUMBER_OF_CELLS) {
+            throw new IllegalArgumentException("Number of cells must be between " + GameUtil.MIN_NUMBER_OF_CELLS
+                    + " and " + GameUtil.MAX_NUMBER_OF_CELLS + " but was " + numberOfCells);
+        }
+
+        this.numberOfCells = numberOfCells;
+        this.cells = new byte[numberOfCells * numberOfCells];
+        this.freeCells = new int[cells.length];
+        this.freeCellSlots = new int[cells.length];
+
+        this.wordsPerLine = (numberOfCells + Long.SIZE - 1) / Long.SIZE;
+        this.rowMasks = new long[numberOfCells * wordsPerLine];
+        this.columnMasks = new long[numberOfCells * wordsPerLine];
+        this.diagonalMasks = new long[(2 * numberOfCells - 1) * wordsPerLine];
+        this.antiDiagonalMasks = new long[(2 * numberOfCells - 1) * wordsPerLine];
+
+        clear();
+    }
+
+    /**
+     * Build a grid of the default board size containing all non null positions of the forwarded array.
+     *
+     * @param positions Positions to mark as occupied.
+     * @return Returns created grid.
+     */
+    public static OccupancyGrid of(final Position[] positions) {
+        final OccupancyGrid grid = new OccupancyGrid();
+        for (final Position position : positions) {
+            if (position != null) {
+                grid.occupy(PositionUtil.toCell(position));
+            }
+        }
+
+        return grid;
+    }
+
+    /**
+     * Mark the cell as occupied by one more snake part. Cells outside the game bounds are ignored.
+     *
+     * @param cell .
+     */
+    public void occupy(final int cell) {
+        if (isOutsideTheGameBounds(cell)) {
+            return;
+        }
+
+        final int index = getIndex(cell);
+        if (cells[index]++ == 0) {
+            removeFreeCell(index);
+            toggleLineBits(cell);
+        }
+    }
+
+    /**
+     * Remove one snake part from the cell. Cells outside the game bounds are ignored.
+     *
+     * @param cell .
+     */
+    public void release(final int cell) {
+        if (isOutsideTheGameBounds(cell)) {
+            return;
+        }
+
+        final int index = getIndex(cell);
+        if (--cells[index] == 0) {
+            addFreeCell(index);
+            toggleLineBits(cell);
+        }
+    }
+
+    /**
+     * Used to check if any snake part is located on the cell.
+     *
+     * @param cell .
+     * @return Returns true if cell is inside the game bounds and occupied.
+     */
+    public boolean isOccupied(final int cell) {
+        return getCount(cell) > 0;
+    }
+
+    /**
+     * Get the number of snake parts located on the cell.
+     *
+     * @param cell .
+     * @return Returns number of snake parts, 0 for cells outside the game bounds.
+     */
+    public int getCount(final int cell) {
+        if (isOutsideTheGameBounds(cell)) {
+            return 0;
+        }
+
+        return cells[getIndex(cell)];
+    }
+
+    /**
+     * Checks if cell is located outside the bounds of this board.
+     *
+     * @param cell .
+     * @return Returns true if cell is outside the bounds.
+     */
+    public boolean isOutsideTheGameBounds(final int cell) {
+        return PositionUtil.isOutsideTheGameBounds(cell, numberOfCells);
+    }
+
+    /**
+     * Get the number of cells in one row or column of the board.
+     *
+     * @return .
+     */
+    public int getNumberOfCells() {
+        return numberOfCells;
+    }
+
+    /**
+     * Get the number of cells on which no snake part is located.
+     *
+     * @return .
+     */
+    public int getFreeCellCount() {
+        return freeCellCount;
+    }
+
+    /**
+     * Get a free cell by its position in the free cell list, picking a random position gives a random free cell in
+     * constant time. Order of the list changes as cells are occupied and released.
+     *
+     * @param index Position in the free cell list, between 0 and {@link #getFreeCellCount()} (exclusive).
+     * @return Returns the free cell.
+     */
+    public int getFreeCell(final int index) {
+        if (index < 0 || index >= freeCellCount) {
+            throw new IndexOutOfBoundsException(
+                    "Index " + index + " out of bounds for " + freeCellCount + " free cells");
+        }
+
+        final int cellIndex = freeCells[index];
+        return PositionUtil.toCell(cellIndex % numberOfCells, cellIndex / numberOfCells);
+    }
+
+    /**
+     * Get the number of steps from the cell along the ray to the nearest occupied cell. The cell itself is not counted.
+     *
+     * @param cell Cell from which the ray starts.
+     * @param ray Direction of the ray.
+     * @return Returns number of steps, 0 if there is no occupied cell on the ray or the cell is outside the game
+     * bounds.
+     */
+    public int getDistanceToOccupied(final int cell, final Ray ray) {
+        if (isOutsideTheGameBounds(cell)) {
+            return 0;
+        }
+
+        final int x = PositionUtil.getCellX(cell);
+        final int y = PositionUtil.getCellY(cell);
+
+        switch (ray) {
+            case RIGHT:
+                return getDistanceForward(rowMasks, y * wordsPerLine, x);
+            case LEFT:
+                return getDistanceBackward(rowMasks, y * wordsPerLine, x);
+            case DOWN:
+                return getDistanceForward(columnMasks, x * wordsPerLine, y);
+            case UP:
+                return getDistanceBackward(columnMasks, x * wordsPerLine, y);
+            case DOWN_RIGHT:
+                return getDistanceForward(diagonalMasks, getDiagonalIndex(x, y) * wordsPerLine, x);
+            case UP_LEFT:
+                return getDistanceBackward(diagonalMasks, getDiagonalIndex(x, y) * wordsPerLine, x);
+            case UP_RIGHT:
+                return getDistanceForward(antiDiagonalMasks, (x + y) * wordsPerLine, x);
+            case DOWN_LEFT:
+                return getDistanceBackward(antiDiagonalMasks, (x + y) * wordsPerLine, x);
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Mark all cells as free.
+     */
+    public void clear() {
+        Arrays.fill(cells, (byte) 0);
+        Arrays.fill(rowMasks, 0L);
+        Arrays.fill(columnMasks, 0L);
+        Arrays.fill(diagonalMasks, 0L);
+        Arrays.fill(antiDiagonalMasks, 0L);
+        for (int i = 0; i < cells.length; i++) {
+            freeCells[i] = i;
+            freeCellSlots[i] = i;
+        }
+        freeCellCount = cells.length;
+    }
+
+    private void removeFreeCell(final int index) {
+        // Move the last free cell into the slot of the removed one
+        final int slot = freeCellSlots[index];
+        final int lastIndex = freeCells[--freeCellCount];
+        freeCells[slot] = lastIndex;
+        freeCellSlots[lastIndex] = slot;
+    }
+
+    private void addFreeCell(final int index) {
+        freeCells[freeCellCount] = index;
+        freeCellSlots[index] = freeCellCount;
+        freeCellCount++;
+    }
+
+    private void toggleLineBits(final int cell) {
+        final int x = PositionUtil.getCellX(cell);
+        final int y = PositionUtil.getCellY(cell);
+
+        // Shifts of a long only use the lowest 6 bits, so 1L << x sets bit x % 64 of the word
+        rowMasks[y * wordsPerLine + (x >>> 6)] ^= 1L << x;
+        columnMasks[x * wordsPerLine + (y >>> 6)] ^= 1L << y;
+        diagonalMasks[getDiagonalIndex(x, y) * wordsPerLine + (x >>> 6)] ^= 1L << x;
+        antiDiagonalMasks[(x + y) * wordsPerLine + (x >>> 6)] ^= 1L << x;
+    }
+
+    private int getDistanceForward(final long[] masks, final int lineOffset, final int position) {
+        // Keep only the bits after the position, the lowest one is the nearest
+        final int from = position + 1;
+        int wordIndex = from >>> 6;
+        if (wordIndex == wordsPerLine) {
+            return 0;
+        }
+
+        long ahead = masks[lineOffset + wordIndex] & (-1L << from);
+        while (ahead == 0) {
+            if (++wordIndex == wordsPerLine) {
+                return 0;
+            }
+            ahead = masks[lineOffset + wordIndex];
+        }
+
+        return wordIndex * Long.SIZE + Long.numberOfTrailingZeros(ahead) - position;
+    }
+
+    private static int getDistanceBackward(final long[] masks, final int lineOffset, final int position) {
+        // Keep only the bits before the position, the highest one is the nearest
+        if (position == 0) {
+            return 0;
+        }
+
+        final int from = position - 1;
+        int wordIndex = from >>> 6;
+        long behind = masks[lineOffset + wordIndex] & (-1L >>> (Long.SIZE - 1 - (from & 63)));
+        while (behind == 0) {
+            if (--wordIndex < 0) {
+                return 0;
+            }
+            behind = masks[lineOffset + wordIndex];
+        }
+
+        return position - (wordIndex * Long.SIZE + Long.SIZE - 1 - Long.numberOfLeadingZeros(behind));
+    }
+
+    private int getDiagonalIndex(final int x, final int y) {
+        return x - y + numberOfCells - 1;
+    }
+
+    private int getIndex(final int cell) {
+        return PositionUtil.getCellY(cell) * numberOfCells + PositionUtil.getCellX(cell);
+    }
+}
@@ -1,9 +1,5 @@
 package com.lilium.snake.game.helper;
 
-import com.lilium.snake.game.util.GameUtil;
-
-import java.util.Objects;
-
 /**
  * Class used to wrap coordinates of a game object (e.g. player or food)
  *
@@ -26,15 +22,6 @@ public class Position {
         return y;
     }
 
-    /**
-     * Checks if position is located outside the bounds.
-     *
-     * @return Returns true if position is outside the bounds.
-     */
-    public boolean isOutsideTheGameBounds() {
-        return x >= GameUtil.GAME_DIMENSIONS || y >= GameUtil.GAME_DIMENSIONS || x < 0 || y < 0;
-    }
-
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -46,7 +33,8 @@ public class Position {
 
     @Override
     public int hashCode() {
-        return Objects.hash(x, y);
+        // Avoid Objects.hash as it boxes both coordinates into a varargs array
+        return 31 * x + y;
     }
 
     @Override
@@ -0,0 +1,67 @@
+package com.lilium.snake.game.helper;
+
+/**
+ * Enum containing the 8 directions in which the snake looks from its head (horizontal, vertical and diagonal).
+ *
+ * @author mirza
+ */
+public enum Ray {
+    /**
+     * Looking up.
+     */
+    UP(0, -1),
+    /**
+     * Looking up and right.
+     */
+    UP_RIGHT(1, -1),
+    /**
+     * Looking right.
+     */
+    RIGHT(1, 0),
+    /**
+     * Looking down and right.
+     */
+    DOWN_RIGHT(1, 1),
+    /**
+     * Looking down.
+     */
+    DOWN(0, 1),
+    /**
+     * Looking down and left.
+     */
+    DOWN_LEFT(-1, 1),
+    /**
+     * Looking left.
+     */
+    LEFT(-1, 0),
+    /**
+     * Looking up and left.
+     */
+    UP_LEFT(-1, -1);
+
+    private final int dx;
+    private final int dy;
+
+    Ray(final int dx, final int dy) {
+        this.dx = dx;
+        this.dy = dy;
+    }
+
+    /**
+     * Get change of the x coordinate per step along the ray.
+     *
+     * @return .
+     */
+    public int getDx() {
+        return dx;
+    }
+
+    /**
+     * Get change of the y coordinate per step along the ray.
+     *
+     * @return .
+     */
+    public int getDy() {
+        return dy;
+    }
+}
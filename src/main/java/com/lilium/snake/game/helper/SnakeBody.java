@@ -0,0 +1,118 @@
+package com.lilium.snake.game.helper;
+
+/**
+ * Cells of all snake parts stored in a circular buffer. Adding a new head and removing the tail are O(1) no matter
+ * how long the snake is, and clearing the body reuses the storage. Cells are packed coordinates, see
+ * {@link com.lilium.snake.game.util.PositionUtil}.
+ * <p>
+ * Buffer can start smaller than the maximum capacity, it is then doubled when full. Used when many snakes share one
+ * board, as only a few of them ever get long.
+ *
+ * @author mirza
+ */
+public class SnakeBody {
+    private final int maxCapacity;
+    private int[] cells;
+
+    // Index of the head in the buffer, parts follow it towards the tail (wrapping around the end of the buffer)
+    private int headIndex;
+    private int size;
+
+    public SnakeBody(final int capacity) {
+        this(capacity, capacity);
+    }
+
+    /**
+     * @param initialCapacity Initial size of the buffer.
+     * @param maxCapacity Maximum number of snake parts.
+     */
+    public SnakeBody(final int initialCapacity, final int maxCapacity) {
+        this.cells = new int[Math.min(initialCapacity, maxCapacity)];
+        this.maxCapacity = maxCapacity;
+    }
+
+    /**
+     * Add a new head in front of the current one.
+     *
+     * @param cell Cell of the new head.
+     */
+    public void addFirst(final int cell) {
+        if (size == cells.length) {
+            grow();
+        }
+
+        headIndex = headIndex == 0 ? cells.length - 1 : headIndex - 1;
+        cells[headIndex] = cell;
+        size++;
+    }
+
+    /**
+     * Remove the last snake part (end of the tail).
+     *
+     * @return Returns cell of the removed part.
+     */
+    public int removeLast() {
+        if (size == 0) {
+            throw new IllegalStateException("Snake body is empty");
+        }
+
+        final int cell = cells[getBufferIndex(size - 1)];
+        size--;
+
+        return cell;
+    }
+
+    /**
+     * Get cell of a snake part in head-first ordering, index 0 is always the head.
+     *
+     * @param index Index of the snake part.
+     * @return Returns cell of the snake part.
+     */
+    public int get(final int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+
+        return cells[getBufferIndex(index)];
+    }
+
+    public int getFirst() {
+        return get(0);
+    }
+
+    public int getLast() {
+        return get(size - 1);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Remove all snake parts.
+     */
+    public void clear() {
+        headIndex = 0;
+        size = 0;
+    }
+
+    private void grow() {
+        if (cells.length == maxCapacity) {
+            throw new IllegalStateException("Snake body is full, capacity is " + maxCapacity);
+        }
+
+        // Copy the parts in head-first ordering to the start of the new buffer
+        final int[] grown = new int[(int) Math.min((long) cells.length * 2, maxCapacity)];
+        for (int i = 0; i < size; i++) {
+            grown[i] = cells[getBufferIndex(i)];
+        }
+
+        cells = grown;
+        headIndex = 0;
+    }
+
+    private int getBufferIndex(final int index) {
+        final int bufferIndex = headIndex + index;
+        return bufferIndex >= cells.length ? bufferIndex - cells.length : bufferIndex;
+    }
+}
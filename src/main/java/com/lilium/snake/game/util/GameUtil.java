@@ -11,13 +11,22 @@ import java.awt.*;
 public final class GameUtil {
     // region Member
     /**
-     * Dimensions of game world 300x300.
+     * Size of a player body part (head or tail) in pixels, every cell of the board is drawn as a square of this size.
      */
-    public static final int GAME_DIMENSIONS = 300;
+    public static final int PLAYER_SIZE = 10;
     /**
-     * Size of a player body part (head or tail).
+     * Default number of cells in one row or column of the game board (30x30 cells), can be changed with the
+     * snake.boardSize system property. Every game can also be created with its own board size.
      */
-    public static final int PLAYER_SIZE = 10;
+    public static final int DEFAULT_NUMBER_OF_CELLS = Integer.getInteger("snake.boardSize", 30);
+    /**
+     * Smallest supported board, the snake starts at cell (5 5).
+     */
+    public static final int MIN_NUMBER_OF_CELLS = 8;
+    /**
+     * Largest supported board, coordinates of a cell are packed into 16 bits each.
+     */
+    public static final int MAX_NUMBER_OF_CELLS = Short.MAX_VALUE;
     // endregion
 
     // region Constructor
@@ -5,6 +5,11 @@ import com.lilium.snake.game.helper.Position;
 
 /**
  * Util class containing helper methods for position calculations.
+ * <p>
+ * Besides {@link Position} objects (pixel coordinates) positions can be represented as cells, which are board
+ * coordinates (pixel coordinate / {@link GameUtil#PLAYER_SIZE}) packed into a single int. X is stored in the upper and
+ * y in the lower 16 bits, both signed so that cells next to the board can be represented too. Cells are used by the
+ * game engine as they do not need any allocation.
  *
  * @author mirza
  */
@@ -48,6 +53,33 @@ public final class PositionUtil {
         );
     }
 
+    /**
+     * Used to calculate next cell based on current cell and forwarded direction.
+     *
+     * @param currentCell .
+     * @param direction .
+     * @return Returns calculated cell.
+     */
+    public static int getNextCell(final int currentCell,
+                                  final Direction direction) {
+        final int x = getCellX(currentCell);
+        final int y = getCellY(currentCell);
+
+        if (direction == Direction.UP) {
+            return toCell(x, y - 1);
+        }
+
+        if (direction == Direction.RIGHT) {
+            return toCell(x + 1, y);
+        }
+
+        if (direction == Direction.DOWN) {
+            return toCell(x, y + 1);
+        }
+
+        return toCell(x - 1, y);
+    }
+
     /**
      * Used to verify if forwarded position is closer to the food.
      *
@@ -59,25 +91,101 @@ public final class PositionUtil {
     public static boolean isPositionCloserToFoodPosition(final Position nextPosition,
                                                          final Position foodPosition,
                                                          final Direction nextDirection) {
+        return isCellCloserToFoodCell(toCell(nextPosition), toCell(foodPosition), nextDirection);
+    }
+
+    /**
+     * Used to verify if forwarded cell is closer to the food.
+     *
+     * @param nextCell .
+     * @param foodCell .
+     * @param nextDirection .
+     * @return .
+     */
+    public static boolean isCellCloserToFoodCell(final int nextCell,
+                                                 final int foodCell,
+                                                 final Direction nextDirection) {
         if (nextDirection == Direction.UP) {
-            return foodPosition.getY() < nextPosition.getY();
+            return getCellY(foodCell) < getCellY(nextCell);
         }
 
         if (nextDirection == Direction.RIGHT) {
-            return foodPosition.getX() > nextPosition.getX();
+            return getCellX(foodCell) > getCellX(nextCell);
         }
 
         if (nextDirection == Direction.DOWN) {
-            return foodPosition.getY() > nextPosition.getY();
+            return getCellY(foodCell) > getCellY(nextCell);
         }
 
         if (nextDirection == Direction.LEFT) {
-            return foodPosition.getX() < nextPosition.getX();
+            return getCellX(foodCell) < getCellX(nextCell);
         }
 
         return false;
     }
 
+    /**
+     * Checks if cell is located outside the bounds of a board.
+     *
+     * @param cell .
+     * @param numberOfCells Number of cells in one row or column of the board.
+     * @return Returns true if cell is outside the bounds.
+     */
+    public static boolean isOutsideTheGameBounds(final int cell, final int numberOfCells) {
+        final int x = getCellX(cell);
+        final int y = getCellY(cell);
+
+        return x >= numberOfCells || y >= numberOfCells || x < 0 || y < 0;
+    }
+
+    /**
+     * Pack board coordinates into a cell.
+     *
+     * @param x Board x coordinate (column).
+     * @param y Board y coordinate (row).
+     * @return Returns packed cell.
+     */
+    public static int toCell(final int x, final int y) {
+        return (x << 16) | (y & 0xFFFF);
+    }
+
+    /**
+     * Convert a position (pixel coordinates) to a cell.
+     *
+     * @param position .
+     * @return Returns packed cell.
+     */
+    public static int toCell(final Position position) {
+        return toCell(position.getX() / GameUtil.PLAYER_SIZE, position.getY() / GameUtil.PLAYER_SIZE);
+    }
+
+    /**
+     * Convert a cell to a position (pixel coordinates). Allocates a new object so it should not be used on the game
+     * step path.
+     *
+     * @param cell .
+     * @return Returns created position.
+     */
+    public static Position toPosition(final int cell) {
+        return buildPosition(getPixelX(cell), getPixelY(cell));
+    }
+
+    public static int getCellX(final int cell) {
+        return cell >> 16;
+    }
+
+    public static int getCellY(final int cell) {
+        return (short) cell;
+    }
+
+    public static int getPixelX(final int cell) {
+        return getCellX(cell) * GameUtil.PLAYER_SIZE;
+    }
+
+    public static int getPixelY(final int cell) {
+        return getCellY(cell) * GameUtil.PLAYER_SIZE;
+    }
+
     private static Position buildPosition(final int x, final int y) {
         return new Position(x, y);
     }
@@ -1,11 +1,9 @@
 package com.lilium.snake.game.util;
 
 import com.lilium.snake.game.helper.Direction;
-import com.lilium.snake.game.helper.Position;
+import com.lilium.snake.game.helper.OccupancyGrid;
 import com.lilium.snake.network.Action;
 
-import java.util.Arrays;
-
 /**
  * Util class containing helper methods for reward calculation.
  *
@@ -19,13 +17,15 @@ public final class RewardUtil {
      * Used to calculate reward for taken action.
      *
      * @param action Action that was taken.
-     * @param snakePosition Current snake position.
-     * @param foodPosition Current food position.
+     * @param headCell Current cell of the snakes head.
+     * @param occupancyGrid Occupancy grid of the snake body.
+     * @param foodCell Current food cell.
      * @return Returns calculated reward value.
      */
     public static double calculateRewardForActionToTake(final Action action,
-                                                        final Position[] snakePosition,
-                                                        final Position foodPosition) {
+                                                        final int headCell,
+                                                        final OccupancyGrid occupancyGrid,
+                                                        final int foodCell) {
         Direction nextDirection = Direction.UP;
         switch (action) {
             case MOVE_UP -> {}
@@ -34,27 +34,27 @@ public final class RewardUtil {
             case MOVE_LEFT -> nextDirection = Direction.LEFT;
         }
 
-        final Position position = PositionUtil.getNextPosition(
-                snakePosition[0],
+        final int cell = PositionUtil.getNextCell(
+                headCell,
                 nextDirection
         );
 
-        return getRewardForPosition(nextDirection, position, snakePosition, foodPosition);
+        return getRewardForCell(nextDirection, cell, occupancyGrid, foodCell);
     }
 
-    private static double getRewardForPosition(final Direction nextDirection,
-                                               final Position nextPosition,
-                                               final Position[] snakePosition,
-                                               final Position foodPosition) {
-        if (nextPosition.isOutsideTheGameBounds() || Arrays.asList(snakePosition).contains(nextPosition)) {
+    private static double getRewardForCell(final Direction nextDirection,
+                                           final int nextCell,
+                                           final OccupancyGrid occupancyGrid,
+                                           final int foodCell) {
+        if (occupancyGrid.isOutsideTheGameBounds(nextCell) || occupancyGrid.isOccupied(nextCell)) {
             return -100.0;
         }
 
-        if (nextPosition.equals(foodPosition)) {
+        if (nextCell == foodCell) {
             return 100.0;
         }
 
-        if (PositionUtil.isPositionCloserToFoodPosition(nextPosition, foodPosition, nextDirection)) {
+        if (PositionUtil.isCellCloserToFoodCell(nextCell, foodCell, nextDirection)) {
             return 1.0;
         }
 
@@ -0,0 +1,166 @@
+package com.lilium.snake.inference;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Local HTTP endpoint selecting actions with a {@link MicroBatcher}. Clients send {@code POST /action} with the
+ * observation as comma separated values (e.g. {@code 0,1,-1,0}) and get back the index of the action to take.
+ * <p>
+ * If a {@link ModelRegistry} is given, {@code POST /model} with the path of a network zip loads it through the
+ * registry and swaps it into the batcher, requests which are already batched are answered by the previous network.
+ *
+ * @author mirza
+ */
+public class InferenceServer implements AutoCloseable {
+    // region Member
+    private static final Logger LOG = LoggerFactory.getLogger(InferenceServer.class);
+
+    private final MicroBatcher batcher;
+    private final ModelRegistry registry;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    // endregion
+
+    // region Setup
+    /**
+     * @param batcher Batcher used to select the actions.
+     * @param port Port on the loopback address, 0 to use any free port.
+     * @param numberOfHandlerThreads Number of threads handling requests, also the number of requests which can wait
+     *                               for their batch at the same time.
+     * @throws IOException Thrown if the server can not be bound to the port.
+     */
+    public InferenceServer(final MicroBatcher batcher,
+                           final int port,
+                           final int numberOfHandlerThreads) throws IOException {
+        this(batcher, null, port, numberOfHandlerThreads);
+    }
+
+    /**
+     * @param batcher Batcher used to select the actions.
+     * @param registry Registry used to load networks which are swapped in, null to disable swapping.
+     * @param port Port on the loopback address, 0 to use any free port.
+     * @param numberOfHandlerThreads Number of threads handling requests, also the number of requests which can wait
+     *                               for their batch at the same time.
+     * @throws IOException Thrown if the server can not be bound to the port.
+     */
+    public InferenceServer(final MicroBatcher batcher,
+                           final ModelRegistry registry,
+                           final int port,
+                           final int numberOfHandlerThreads) throws IOException {
+        this.batcher = batcher;
+        this.registry = registry;
+        this.executor = Executors.newFixedThreadPool(numberOfHandlerThreads);
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.server.createContext("/action", this::handleAction);
+        if (registry != null) {
+            this.server.createContext("/model", this::handleModel);
+        }
+        this.server.setExecutor(executor);
+    }
+    // endregion
+
+    // region Implementation
+    public void start() {
+        server.start();
+        LOG.info("Inference server listening on port '{}'", getPort());
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+        batcher.close();
+    }
+    // endregion
+
+    // region Helper
+    private void handleAction(final HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                respond(exchange, 405, "Only POST is supported");
+                return;
+            }
+
+            final CompletableFuture<Integer> action;
+            try {
+                action = batcher.submit(parseObservation(new String(exchange.getRequestBody().readAllBytes(),
+                        StandardCharsets.US_ASCII)));
+            } catch (final IllegalArgumentException e) {
+                respond(exchange, 400, e.getMessage());
+                return;
+            }
+
+            try {
+                respond(exchange, 200, String.valueOf(action.get()));
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                respond(exchange, 503, "Server is shutting down");
+            } catch (final ExecutionException e) {
+                LOG.error(e.getMessage(), e);
+                respond(exchange, 500, String.valueOf(e.getCause().getMessage()));
+            }
+        }
+    }
+
+    private void handleModel(final HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                respond(exchange, 405, "Only POST is supported");
+                return;
+            }
+
+            final String networkName = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8)
+                    .trim();
+            final ModelRegistry.Model model;
+            try {
+                model = registry.getModel(Paths.get(networkName));
+                batcher.swapNetwork(model.getNetwork());
+            } catch (final IOException | IllegalArgumentException e) {
+                LOG.error(e.getMessage(), e);
+                respond(exchange, 400, String.valueOf(e.getMessage()));
+                return;
+            }
+
+            LOG.info("Swapped in network '{}'", networkName);
+            respond(exchange, 200, String.valueOf(model.getLoadTimeMs()));
+        }
+    }
+
+    private static double[] parseObservation(final String body) {
+        final String[] values = body.trim().split(",");
+        final double[] observation = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            // NumberFormatException is an IllegalArgumentException
+            observation[i] = Double.parseDouble(values[i].trim());
+        }
+
+        return observation;
+    }
+
+    private static void respond(final HttpExchange exchange, final int status, final String body) throws IOException {
+        final byte[] bytes = body.getBytes(StandardCharsets.US_ASCII);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(bytes);
+        }
+    }
+    // endregion
+}
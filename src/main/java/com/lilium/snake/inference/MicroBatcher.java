@@ -0,0 +1,236 @@
+package com.lilium.snake.inference;
+
+import com.lilium.snake.events.ForwardPassEvent;
+import com.lilium.snake.network.Action;
+import com.lilium.snake.network.util.GameStateUtil;
+import com.lilium.snake.network.util.NetworkUtil;
+import jdk.jfr.EventType;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Used to gather concurrent observation requests into batches so that one network forward pass selects the actions
+ * of many requests. A batch is run once it is full or once the first request in it has waited for the latency budget.
+ * The network is only used by the batching thread, so it does not need to be thread-safe. It can be swapped while
+ * requests are served, every batch runs completely on the network which was set when the batch started.
+ *
+ * @author mirza
+ */
+public class MicroBatcher implements AutoCloseable {
+    // region Member
+    private static final Logger LOG = LoggerFactory.getLogger(MicroBatcher.class);
+    private static final EventType FORWARD_PASS_EVENT_TYPE = EventType.getEventType(ForwardPassEvent.class);
+
+    private final AtomicReference<MultiLayerNetwork> network;
+    private final long latencyBudgetNanos;
+    private final int maxBatchSize;
+    private final BlockingQueue<Request> queue = new LinkedBlockingQueue<>();
+    private final Thread thread;
+
+    // Reused by the batching thread
+    private final List<Request> batch = new ArrayList<>();
+    private final double[] actionValues = new double[Action.values().length];
+
+    private volatile boolean running = true;
+    // Only written by the batching thread
+    private volatile long numberOfBatches;
+    private volatile long numberOfRequests;
+    // endregion
+
+    // region Setup
+    /**
+     * @param network Network used to select the actions.
+     * @param latencyBudgetNanos Longest time a request waits for other requests to join its batch.
+     * @param maxBatchSize Largest number of requests in one batch.
+     */
+    public MicroBatcher(final MultiLayerNetwork network, final long latencyBudgetNanos, final int maxBatchSize) {
+        this.network = new AtomicReference<>(checkInputs(network));
+        this.latencyBudgetNanos = latencyBudgetNanos;
+        this.maxBatchSize = maxBatchSize;
+        this.thread = new Thread(this::run, "micro-batcher");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+    // endregion
+
+    // region Implementation
+    /**
+     * Queue the observation for the next batch.
+     *
+     * @param observation Game state observation.
+     * @return Returns future completed with the index of the action to take.
+     */
+    public CompletableFuture<Integer> submit(final double[] observation) {
+        if (observation.length != NetworkUtil.NUMBER_OF_INPUTS) {
+            throw new IllegalArgumentException("Observation must have " + NetworkUtil.NUMBER_OF_INPUTS
+                    + " values but had " + observation.length);
+        }
+
+        final Request request = new Request(observation, System.nanoTime());
+        if (!running) {
+            request.future.completeExceptionally(new IllegalStateException("Micro batcher is closed"));
+            return request.future;
+        }
+
+        queue.add(request);
+        // Closed in the meantime, the request may have been queued after the queue was drained
+        if (!running && queue.remove(request)) {
+            request.future.completeExceptionally(new IllegalStateException("Micro batcher is closed"));
+        }
+
+        return request.future;
+    }
+
+    /**
+     * Replace the network used for the following batches, batches already running finish on the previous network.
+     *
+     * @param network New network, must take the same observations.
+     * @return Returns previous network.
+     */
+    public MultiLayerNetwork swapNetwork(final MultiLayerNetwork network) {
+        return this.network.getAndSet(checkInputs(network));
+    }
+
+    public long getNumberOfBatches() {
+        return numberOfBatches;
+    }
+
+    public long getNumberOfRequests() {
+        return numberOfRequests;
+    }
+
+    /**
+     * Get average number of requests in a batch.
+     *
+     * @return Returns average batch size, 0 if no batch has run yet.
+     */
+    public double getAverageBatchSize() {
+        final long batches = numberOfBatches;
+        return batches == 0 ? 0 : (double) numberOfRequests / batches;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        thread.interrupt();
+
+        Request request;
+        while ((request = queue.poll()) != null) {
+            request.future.completeExceptionally(new IllegalStateException("Micro batcher is closed"));
+        }
+    }
+    // endregion
+
+    // region Helper
+    private void run() {
+        while (running) {
+            try {
+                collectBatch();
+                runBatch();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failBatch(e);
+                return;
+            } catch (final Exception e) {
+                LOG.error(e.getMessage(), e);
+                failBatch(e);
+            }
+        }
+    }
+
+    private void collectBatch() throws InterruptedException {
+        final Request first = queue.take();
+        batch.add(first);
+
+        // Wait for more requests until the batch is full or the first request has used up its latency budget
+        final long deadline = first.arrivalNanos + latencyBudgetNanos;
+        while (batch.size() < maxBatchSize) {
+            final long remaining = deadline - System.nanoTime();
+            final Request next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+            if (next == null) {
+                break;
+            }
+
+            batch.add(next);
+        }
+    }
+
+    private void runBatch() {
+        final INDArray input = Nd4j.create(NetworkUtil.DATA_TYPE, batch.size(), NetworkUtil.NUMBER_OF_INPUTS);
+        for (int i = 0; i < batch.size(); i++) {
+            final double[] observation = batch.get(i).observation;
+            for (int j = 0; j < observation.length; j++) {
+                input.putScalar(i, j, observation[j]);
+            }
+        }
+
+        final ForwardPassEvent event = FORWARD_PASS_EVENT_TYPE.isEnabled() ? new ForwardPassEvent() : null;
+        if (event != null) {
+            event.begin();
+        }
+
+        final INDArray output = network.get().output(input, false);
+
+        if (event != null) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.batchSize = batch.size();
+                event.commit();
+            }
+        }
+
+        // Counted before the requests are completed, so that whoever got a result also sees its batch counted
+        numberOfBatches++;
+        numberOfRequests += batch.size();
+
+        for (int i = 0; i < batch.size(); i++) {
+            for (int j = 0; j < actionValues.length; j++) {
+                actionValues[j] = output.getDouble(i, j);
+            }
+
+            batch.get(i).future.complete(GameStateUtil.getMaxValueIndex(actionValues));
+        }
+
+        batch.clear();
+    }
+
+    private static MultiLayerNetwork checkInputs(final MultiLayerNetwork network) {
+        if (network.layerInputSize(0) != NetworkUtil.NUMBER_OF_INPUTS) {
+            throw new IllegalArgumentException("Network must take " + NetworkUtil.NUMBER_OF_INPUTS
+                    + " inputs but takes " + network.layerInputSize(0));
+        }
+
+        return network;
+    }
+
+    private void failBatch(final Exception e) {
+        for (final Request request : batch) {
+            request.future.completeExceptionally(e);
+        }
+
+        batch.clear();
+    }
+
+    private static final class Request {
+        private final double[] observation;
+        private final long arrivalNanos;
+        private final CompletableFuture<Integer> future = new CompletableFuture<>();
+
+        private Request(final double[] observation, final long arrivalNanos) {
+            this.observation = observation;
+            this.arrivalNanos = arrivalNanos;
+        }
+    }
+    // endregion
+}
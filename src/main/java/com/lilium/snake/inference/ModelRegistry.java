@@ -0,0 +1,269 @@
+package com.lilium.snake.inference;
+
+import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Cache of loaded networks, keeping at most a fixed number of them and evicting the least recently used one.
+ * <p>
+ * Loading a network zip means inflating it and deserializing the parameters, so the first time a zip is loaded its
+ * configuration and raw parameters are written into the cache directory. Later loads (also by other processes) read
+ * the configuration and map the parameter file into memory instead, which only copies the parameters once. Cache
+ * files are named after the absolute path of the zip, so zips of the same name in different directories (e.g.
+ * checkpoints of separate runs) do not share them. Size and modification time of the zip are stored next to the cache
+ * files and the cache is rewritten if they do not match anymore.
+ * <p>
+ * Networks are shared by all callers getting them, a network must only be used by one thread at a time (e.g. by the
+ * {@link MicroBatcher}) or be cloned per thread.
+ *
+ * @author mirza
+ */
+public class ModelRegistry {
+    // region Member
+    private static final Logger LOG = LoggerFactory.getLogger(ModelRegistry.class);
+
+    private final Path cacheDirectory;
+    // Loads in progress are stored as well, so that concurrent gets of the same network load it only once
+    private final Map<Path, Future<Model>> models;
+    // endregion
+
+    // region Setup
+    /**
+     * @param maxModels Largest number of networks kept in memory.
+     * @param cacheDirectory Directory into which configurations and parameters of loaded networks are written.
+     * @throws IOException Thrown if cache directory can not be created.
+     */
+    public ModelRegistry(final int maxModels, final Path cacheDirectory) throws IOException {
+        this.cacheDirectory = Files.createDirectories(cacheDirectory);
+        this.models = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Path, Future<Model>> eldest) {
+                return size() > maxModels;
+            }
+        };
+    }
+    // endregion
+
+    // region Implementation
+    /**
+     * Get the network stored in the zip file, loading it if it is not in the registry.
+     *
+     * @param file Network zip file.
+     * @return Returns loaded network.
+     * @throws IOException Thrown if network can not be loaded.
+     */
+    public MultiLayerNetwork get(final Path file) throws IOException {
+        return getModel(file).getNetwork();
+    }
+
+    /**
+     * Get the network stored in the zip file together with information about its loading, loading it if it is not in
+     * the registry.
+     *
+     * @param file Network zip file.
+     * @return Returns loaded model.
+     * @throws IOException Thrown if network can not be loaded.
+     */
+    public Model getModel(final Path file) throws IOException {
+        final Path key = file.toAbsolutePath().normalize();
+
+        FutureTask<Model> load = null;
+        final Future<Model> model;
+        synchronized (models) {
+            final Future<Model> existing = models.get(key);
+            if (existing != null) {
+                model = existing;
+            } else {
+                load = new FutureTask<>(() -> load(key));
+                models.put(key, load);
+                model = load;
+            }
+        }
+
+        // Load outside of the lock, so that other networks can be got in the meantime
+        if (load != null) {
+            load.run();
+        }
+
+        try {
+            return model.get();
+        } catch (final ExecutionException e) {
+            synchronized (models) {
+                models.remove(key, model);
+            }
+
+            throw e.getCause() instanceof IOException
+                    ? (IOException) e.getCause()
+                    : new IOException("Could not load network '" + key + "'", e.getCause());
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while loading network '" + key + "'", e);
+        }
+    }
+
+    /**
+     * Get the number of networks in the registry, including the ones being loaded.
+     *
+     * @return .
+     */
+    public int size() {
+        synchronized (models) {
+            return models.size();
+        }
+    }
+    // endregion
+
+    // region Helper
+    private Model load(final Path file) throws IOException {
+        final long start = System.nanoTime();
+        final String name = getCacheName(file);
+        final Path configurationFile = cacheDirectory.resolve(name + ".json");
+        final Path parameterFile = cacheDirectory.resolve(name + ".params");
+        final Path sourceFile = cacheDirectory.resolve(name + ".source");
+
+        final String source = Files.size(file) + " " + Files.getLastModifiedTime(file).toMillis();
+        final boolean cached = Files.exists(parameterFile)
+                && Files.exists(configurationFile)
+                && Files.exists(sourceFile)
+                && source.equals(new String(Files.readAllBytes(sourceFile), StandardCharsets.UTF_8));
+
+        final MultiLayerNetwork network;
+        if (cached) {
+            network = loadFromCache(configurationFile, parameterFile);
+        } else {
+            network = MultiLayerNetwork.load(file.toFile(), false);
+            writeCache(network, configurationFile, parameterFile);
+            // Written last, so cache files are only used once all of them belong to this zip
+            writeAtomically(sourceFile, source.getBytes(StandardCharsets.UTF_8));
+        }
+
+        final Model model = new Model(network, System.nanoTime() - start, cached);
+        LOG.info("Loaded network '{}' from '{}' in '{}' ms",
+                file, cached ? parameterFile : file, model.getLoadTimeMs());
+        return model;
+    }
+
+    private static String getCacheName(final Path file) {
+        final String name = file.getFileName().toString().replaceFirst("\\.zip$", "");
+        try {
+            final byte[] hash = MessageDigest.getInstance("SHA-256")
+                    .digest(file.toString().getBytes(StandardCharsets.UTF_8));
+
+            // First 8 bytes of the hash of the path are plenty to tell the zips of one cache directory apart
+            final StringBuilder builder = new StringBuilder(name).append('-');
+            for (int i = 0; i < 8; i++) {
+                builder.append(String.format("%02x", hash[i]));
+            }
+
+            return builder.toString();
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static MultiLayerNetwork loadFromCache(final Path configurationFile,
+                                                   final Path parameterFile) throws IOException {
+        final MultiLayerConfiguration configuration = MultiLayerConfiguration.fromJson(
+                new String(Files.readAllBytes(configurationFile), StandardCharsets.UTF_8));
+        final DataType dataType = configuration.getDataType();
+
+        try (FileChannel channel = FileChannel.open(parameterFile, StandardOpenOption.READ)) {
+            final MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            bytes.order(ByteOrder.nativeOrder());
+
+            final int length = (int) (channel.size() / dataType.width());
+            final DataBuffer buffer = Nd4j.createBuffer(bytes, dataType, length);
+            final INDArray parameters = Nd4j.create(buffer, new long[]{1, length});
+
+            // Parameters are copied, so the network does not depend on the mapping
+            final MultiLayerNetwork network = new MultiLayerNetwork(configuration);
+            network.init(parameters, true);
+            return network;
+        }
+    }
+
+    private static void writeCache(final MultiLayerNetwork network,
+                                   final Path configurationFile,
+                                   final Path parameterFile) throws IOException {
+        final INDArray parameters = network.params().dup();
+        final ByteBuffer bytes = parameters.data().asNio();
+        bytes.order(ByteOrder.nativeOrder());
+        bytes.limit((int) (parameters.length() * parameters.dataType().width()));
+
+        // Write into temporary files first, so concurrent readers never see a partly written cache
+        final Path temporaryParameterFile = Files.createTempFile(parameterFile.getParent(), "network", ".tmp");
+        try (FileChannel channel = FileChannel.open(temporaryParameterFile, StandardOpenOption.WRITE)) {
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+        }
+
+        writeAtomically(configurationFile,
+                network.getLayerWiseConfigurations().toJson().getBytes(StandardCharsets.UTF_8));
+        Files.move(temporaryParameterFile, parameterFile,
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void writeAtomically(final Path file, final byte[] content) throws IOException {
+        final Path temporaryFile = Files.createTempFile(file.getParent(), "network", ".tmp");
+        Files.write(temporaryFile, content);
+        Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    // endregion
+
+    /**
+     * Network loaded by the registry.
+     */
+    public static final class Model {
+        private final MultiLayerNetwork network;
+        private final long loadNanos;
+        private final boolean fromCache;
+
+        private Model(final MultiLayerNetwork network, final long loadNanos, final boolean fromCache) {
+            this.network = network;
+            this.loadNanos = loadNanos;
+            this.fromCache = fromCache;
+        }
+
+        public MultiLayerNetwork getNetwork() {
+            return network;
+        }
+
+        public long getLoadTimeMs() {
+            return loadNanos / 1_000_000;
+        }
+
+        /**
+         * Used to check if the network was loaded from the memory-mapped cache files instead of its zip.
+         *
+         * @return .
+         */
+        public boolean isFromCache() {
+            return fromCache;
+        }
+    }
+}
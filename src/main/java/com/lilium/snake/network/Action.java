@@ -1,7 +1,6 @@
 package com.lilium.snake.network;
 
 import java.util.List;
-import java.util.Random;
 
 /**
  * Class representing actions which player can take.
@@ -28,7 +27,6 @@ public enum Action {
 
     private static final List<Action> VALUES = List.of(values());
     private static final int SIZE = VALUES.size();
-    private static final Random RANDOM = new Random();
 
     /**
      * Gets an action based on provided index.
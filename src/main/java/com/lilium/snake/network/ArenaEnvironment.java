@@ -0,0 +1,208 @@
+package com.lilium.snake.network;
+
+import com.lilium.snake.game.ArenaEngine;
+import com.lilium.snake.network.util.GameStateUtil;
+import com.lilium.snake.network.util.NetworkUtil;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.util.SplittableRandom;
+
+/**
+ * Environment of an {@link ArenaEngine}, the batched counterpart of {@link VectorizedEnvironment} for many snakes on
+ * one board. Observations of all snakes are collected into one N x {@link NetworkUtil#NUMBER_OF_INPUTS} matrix so that
+ * a single network forward pass selects the actions of all snakes. Snakes that die are respawned automatically.
+ *
+ * @author mirza
+ */
+public class ArenaEnvironment {
+    // region Member
+    private final ArenaEngine arena;
+    private final INDArray observations;
+    private final DataBuffer observationsBuffer;
+
+    // Reused buffers so that a step does not allocate
+    private final double[] actionValues = new double[Action.values().length];
+    private final int[] actions;
+    private final double[] rewards;
+    private final boolean[] done;
+    private final int[] lastEpisodeScores;
+
+    private long steps;
+    private long finishedEpisodes;
+    private long finishedEpisodesScore;
+    // endregion
+
+    // region Setup
+    /**
+     * @param numberOfCells Number of cells in one row or column of the board.
+     * @param numberOfSnakes Number of snakes in the arena.
+     * @param numberOfFood Number of food items which are on the board at all times.
+     * @param seed Seed of the arena.
+     */
+    public ArenaEnvironment(final int numberOfCells,
+                            final int numberOfSnakes,
+                            final int numberOfFood,
+                            final long seed) {
+        this.arena = new ArenaEngine(numberOfCells, numberOfSnakes, numberOfFood, new SplittableRandom(seed));
+
+        this.observations = Nd4j.create(NetworkUtil.DATA_TYPE, numberOfSnakes, NetworkUtil.NUMBER_OF_INPUTS);
+        this.observationsBuffer = observations.data();
+        this.actions = new int[numberOfSnakes];
+        this.rewards = new double[numberOfSnakes];
+        this.done = new boolean[numberOfSnakes];
+        this.lastEpisodeScores = new int[numberOfSnakes];
+
+        reset();
+    }
+    // endregion
+
+    // region Implementation
+    /**
+     * Reset the arena and collect the observations of all snakes.
+     *
+     * @return Returns observations of all snakes, one row per snake.
+     */
+    public INDArray reset() {
+        arena.reset();
+        for (int i = 0; i < done.length; i++) {
+            done[i] = false;
+            writeObservation(i);
+        }
+
+        return observations;
+    }
+
+    /**
+     * Run a single forward pass for the observations of all snakes and step every snake with its best action.
+     *
+     * @param network Network used to select the actions.
+     * @return Returns observations of all snakes after the step, one row per snake.
+     */
+    public INDArray step(final MultiLayerNetwork network) {
+        final INDArray output = network.output(observations, false);
+
+        for (int i = 0; i < actions.length; i++) {
+            for (int j = 0; j < actionValues.length; j++) {
+                actionValues[j] = output.getDouble(i, j);
+            }
+
+            actions[i] = GameStateUtil.getMaxValueIndex(actionValues);
+        }
+
+        return step(actions);
+    }
+
+    /**
+     * Step all snakes together. Snakes that have died are respawned, their {@link #isDone(int)} flag is set and their
+     * observation is the first observation of the new life.
+     *
+     * @param actionIndexes Index of the action to take, one per snake.
+     * @return Returns observations of all snakes after the step, one row per snake.
+     */
+    public INDArray step(final int[] actionIndexes) {
+        arena.step(actionIndexes, rewards, done);
+
+        for (int i = 0; i < done.length; i++) {
+            if (done[i]) {
+                lastEpisodeScores[i] = arena.getScore(i);
+                finishedEpisodes++;
+                finishedEpisodesScore += arena.getScore(i);
+            }
+
+            // Also retries snakes that could not be spawned before because the board was full
+            if (!arena.isAlive(i)) {
+                arena.respawn(i);
+            }
+
+            writeObservation(i);
+        }
+
+        steps += done.length;
+        return observations;
+    }
+
+    public int getNumberOfSnakes() {
+        return done.length;
+    }
+
+    /**
+     * Get the arena, e.g. to look at the board.
+     *
+     * @return .
+     */
+    public ArenaEngine getArena() {
+        return arena;
+    }
+
+    /**
+     * Get observations of all snakes, one row per snake. The matrix is reused between steps.
+     *
+     * @return .
+     */
+    public INDArray getObservations() {
+        return observations;
+    }
+
+    /**
+     * Get reward of the last step for the snake.
+     *
+     * @param index Index of the snake.
+     * @return .
+     */
+    public double getReward(final int index) {
+        return rewards[index];
+    }
+
+    /**
+     * Used to check if the snake died in the last step (it has already been respawned).
+     *
+     * @param index Index of the snake.
+     * @return .
+     */
+    public boolean isDone(final int index) {
+        return done[index];
+    }
+
+    /**
+     * Get score of the last finished life of the snake.
+     *
+     * @param index Index of the snake.
+     * @return .
+     */
+    public int getLastEpisodeScore(final int index) {
+        return lastEpisodeScores[index];
+    }
+
+    /**
+     * Get number of steps over all snakes.
+     *
+     * @return .
+     */
+    public long getSteps() {
+        return steps;
+    }
+
+    public long getFinishedEpisodes() {
+        return finishedEpisodes;
+    }
+
+    /**
+     * Get average score of all finished lives.
+     *
+     * @return Returns average score, 0 if no snake has died yet.
+     */
+    public double getAverageScore() {
+        return finishedEpisodes == 0 ? 0 : (double) finishedEpisodesScore / finishedEpisodes;
+    }
+    // endregion
+
+    // region Helper
+    private void writeObservation(final int index) {
+        // Observations matrix is in row-major order so the row of the snake starts at index * number of inputs
+        arena.buildStateObservation(index, observationsBuffer, (long) index * NetworkUtil.NUMBER_OF_INPUTS);
+    }
+    // endregion
+}
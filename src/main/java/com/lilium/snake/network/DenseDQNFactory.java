@@ -0,0 +1,77 @@
+package com.lilium.snake.network;
+
+import org.deeplearning4j.nn.api.OptimizationAlgorithm;
+import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.conf.layers.DenseLayer;
+import org.deeplearning4j.nn.conf.layers.OutputLayer;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.nn.weights.WeightInit;
+import org.deeplearning4j.optimize.listeners.ScoreIterationListener;
+import org.deeplearning4j.rl4j.network.configuration.DQNDenseNetworkConfiguration;
+import org.deeplearning4j.rl4j.network.dqn.DQN;
+import org.deeplearning4j.rl4j.network.dqn.DQNFactory;
+import org.deeplearning4j.rl4j.network.dqn.IDQN;
+import org.nd4j.linalg.activations.Activation;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.lossfunctions.LossFunctions;
+
+/**
+ * Builds the same dense network as the RL4J {@code DQNFactoryStdDense}, but with a configurable data type of the
+ * parameters and activations (the RL4J factory always uses the default one).
+ *
+ * @author mirza
+ */
+public class DenseDQNFactory implements DQNFactory {
+    private final DQNDenseNetworkConfiguration configuration;
+    private final DataType dataType;
+    private final long seed;
+
+    /**
+     * @param configuration Layers, updater and regularization of the network.
+     * @param dataType Data type of the network, e.g. FLOAT, DOUBLE or HALF.
+     * @param seed Seed of the weight initialization.
+     */
+    public DenseDQNFactory(final DQNDenseNetworkConfiguration configuration,
+                           final DataType dataType,
+                           final long seed) {
+        this.configuration = configuration;
+        this.dataType = dataType;
+        this.seed = seed;
+    }
+
+    @Override
+    public IDQN buildDQN(final int[] shapeInputs, final int numOutputs) {
+        int numberOfInputs = 1;
+        for (final int size : shapeInputs) {
+            numberOfInputs *= size;
+        }
+
+        final NeuralNetConfiguration.ListBuilder builder = new NeuralNetConfiguration.Builder()
+                .seed(seed)
+                .dataType(dataType)
+                .optimizationAlgo(OptimizationAlgorithm.STOCHASTIC_GRADIENT_DESCENT)
+                .updater(configuration.getUpdater())
+                .weightInit(WeightInit.XAVIER)
+                .l2(configuration.getL2())
+                .list();
+
+        for (int i = 0; i < configuration.getNumLayers(); i++) {
+            builder.layer(i, new DenseLayer.Builder()
+                    .nIn(i == 0 ? numberOfInputs : configuration.getNumHiddenNodes())
+                    .nOut(configuration.getNumHiddenNodes())
+                    .activation(Activation.RELU)
+                    .build());
+        }
+
+        builder.layer(configuration.getNumLayers(), new OutputLayer.Builder(LossFunctions.LossFunction.MSE)
+                .activation(Activation.IDENTITY)
+                .nIn(configuration.getNumHiddenNodes())
+                .nOut(numOutputs)
+                .build());
+
+        final MultiLayerNetwork network = new MultiLayerNetwork(builder.build());
+        network.init();
+        network.setListeners(new ScoreIterationListener(50));
+        return new DQN(network);
+    }
+}
@@ -1,29 +1,60 @@
 package com.lilium.snake.network;
 
-import com.lilium.snake.game.Game;
+import com.lilium.snake.events.EnvironmentResetEvent;
+import com.lilium.snake.events.EnvironmentStepEvent;
+import com.lilium.snake.game.GameEngine;
+import com.lilium.snake.network.metrics.TrainingMetrics;
 import com.lilium.snake.network.util.NetworkUtil;
+import jdk.jfr.EventType;
 import org.deeplearning4j.gym.StepReply;
 import org.deeplearning4j.rl4j.mdp.MDP;
 import org.deeplearning4j.rl4j.space.DiscreteSpace;
 import org.deeplearning4j.rl4j.space.ObservationSpace;
 
+import java.util.SplittableRandom;
+
 /**
  * Game environment that is used to train the network.
  *
  * @author mirza
  */
 public class Environment implements MDP<GameState, Integer, DiscreteSpace> {
+    private static final EventType RESET_EVENT_TYPE = EventType.getEventType(EnvironmentResetEvent.class);
+    private static final EventType STEP_EVENT_TYPE = EventType.getEventType(EnvironmentStepEvent.class);
+
     // Size is 4 as we have 4 actions
     private final DiscreteSpace actionSpace = new DiscreteSpace(4);
-    private final Game game;
+    private final GameObservationSpace observationSpace = new GameObservationSpace();
+    private final GameEngine game;
+    // Used to derive the random generators of new instances
+    private final SplittableRandom random;
+    // Optional, records step durations and episodes
+    private TrainingMetrics metrics;
+
+    public Environment() {
+        this(new SplittableRandom(NetworkUtil.SEED));
+    }
+
+    /**
+     * @param random Random generator of the run, the game and every new instance get their own generator split from
+     *               it.
+     */
+    public Environment(final SplittableRandom random) {
+        this(new GameEngine(random.split()), random);
+    }
 
-    public Environment(final Game game) {
+    public Environment(final GameEngine game) {
+        this(game, new SplittableRandom(NetworkUtil.SEED));
+    }
+
+    private Environment(final GameEngine game, final SplittableRandom random) {
         this.game = game;
+        this.random = random;
     }
 
     @Override
     public ObservationSpace<GameState> getObservationSpace() {
-        return new GameObservationSpace();
+        return observationSpace;
     }
 
     @Override
@@ -33,7 +64,27 @@ public class Environment implements MDP<GameState, Integer, DiscreteSpace> {
 
     @Override
     public GameState reset() {
-        return game.initializeGame();
+        if (metrics != null) {
+            metrics.recordEpisode();
+        }
+
+        // Events are only created while they are recorded, so that the environment does not allocate them otherwise
+        final EnvironmentResetEvent event = RESET_EVENT_TYPE.isEnabled() ? new EnvironmentResetEvent() : null;
+        if (event != null) {
+            event.begin();
+        }
+
+        final GameState observation = game.initializeGame();
+
+        if (event != null) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.episodeSeed = game.getEpisodeSeed();
+                event.commit();
+            }
+        }
+
+        return observation;
     }
 
     @Override
@@ -41,22 +92,38 @@ public class Environment implements MDP<GameState, Integer, DiscreteSpace> {
 
     @Override
     public StepReply<GameState> step(final Integer actionIndex) {
+        final long start = metrics != null ? System.nanoTime() : 0;
+        final EnvironmentStepEvent event = STEP_EVENT_TYPE.isEnabled() ? new EnvironmentStepEvent() : null;
+        if (event != null) {
+            event.begin();
+        }
+
         // Find action based on action index
         final Action actionToTake = Action.getActionByIndex(actionIndex);
 
-        // Change direction based on action and move the snake in that direction
-        game.changeDirection(actionToTake);
-        game.move();
+        // Change direction based on action, move the snake in that direction and get the reward
+        final double reward = game.step(actionToTake);
 
         // If you want to see what is the snake doing while training increase this value
         NetworkUtil.waitMs(0);
 
-        // Get reward
-        double reward = game.calculateRewardForActionToTake(actionToTake);
-
         // Get current state
         final GameState observation = game.buildStateObservation();
 
+        if (metrics != null) {
+            metrics.recordEnvironmentStep(System.nanoTime() - start);
+        }
+
+        if (event != null) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.action = actionIndex;
+                event.reward = reward;
+                event.done = isDone();
+                event.commit();
+            }
+        }
+
         return new StepReply<>(
                 observation,
                 reward,
@@ -70,9 +137,39 @@ public class Environment implements MDP<GameState, Integer, DiscreteSpace> {
         return !game.isOngoing();
     }
 
+    /**
+     * Get score of the current (or just finished) episode.
+     *
+     * @return .
+     */
+    public int getScore() {
+        return game.getScore();
+    }
+
+    /**
+     * Set metrics in which the environment records its steps and episodes, instances created with
+     * {@link #newInstance()} record in the same metrics.
+     *
+     * @param metrics Metrics to record in, null to stop recording.
+     */
+    public void setMetrics(final TrainingMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Creates an environment with its own independent game, so that instances can be used by different threads (e.g.
+     * by the async learners). Its random generator is split from the one of this environment, so instances created in
+     * the same order get the same seeds.
+     *
+     * @return Returns created environment.
+     */
     @Override
     public MDP<GameState, Integer, DiscreteSpace> newInstance() {
-        game.initializeGame();
-        return new Environment(game);
+        final Environment environment = new Environment(
+                new GameEngine(game.getNumberOfCells(), random.split()),
+                random
+        );
+        environment.setMetrics(metrics);
+        return environment;
     }
 }
@@ -0,0 +1,46 @@
+package com.lilium.snake.network;
+
+import com.lilium.snake.game.helper.Direction;
+import com.lilium.snake.game.helper.Ray;
+
+/**
+ * Enum containing the sets of features the network can observe. Every set starts with the basic features, so a
+ * larger set only appends inputs.
+ *
+ * @author mirza
+ */
+public enum FeatureSet {
+    /**
+     * State of the cell UP, RIGHT, DOWN and LEFT of the head, -1 if blocked, 1 if the food is in that direction and 0
+     * otherwise.
+     */
+    BASIC(4, true),
+    /**
+     * Basic features followed by, for each {@link Ray}, the inverse distance to the wall and to the nearest body part
+     * (1 if adjacent, 0 if there is no body part on the ray), the food delta on both axes scaled to [-1, 1], the snake
+     * length scaled to [0, 1] and a one-hot encoding of the tail direction (UP, RIGHT, DOWN, LEFT).
+     */
+    EXTENDED(4 + 2 * Ray.values().length + 2 + 1 + Direction.values().length, false);
+
+    private final int numberOfInputs;
+    private final boolean ternary;
+
+    FeatureSet(final int numberOfInputs, final boolean ternary) {
+        this.numberOfInputs = numberOfInputs;
+        this.ternary = ternary;
+    }
+
+    public int getNumberOfInputs() {
+        return numberOfInputs;
+    }
+
+    /**
+     * Used to check if every feature only takes the values -1, 0 and 1, which is required by
+     * {@link PackedExperienceHandler}.
+     *
+     * @return .
+     */
+    public boolean isTernary() {
+        return ternary;
+    }
+}
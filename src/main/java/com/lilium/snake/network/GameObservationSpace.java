@@ -6,14 +6,23 @@ import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.factory.Nd4j;
 
 /**
- * Game observation space. Shape is [1, 4] as we observe 4 inputs. Starting from the snake head we "look" at position
- * that is UP, RIGHT, DOWN and LEFT of the head.
+ * Game observation space. Shape is [number of inputs] of the selected {@link FeatureSet}, with the basic set we
+ * observe 4 inputs. Starting from the snake head we "look" at position that is UP, RIGHT, DOWN and LEFT of the head.
+ * <p>
+ * If every input only takes the whole numbers between the low and the high value (e.g. -1, 0 and 1 of the basic set)
+ * the space is finite, then every observation has an index and all observations can be enumerated.
  *
  * @author mirza
  */
 public class GameObservationSpace implements ObservationSpace<GameState> {
     private static final double[] LOWS = GameObservationSpace.createValueArray(NetworkUtil.LOW_VALUE);
     private static final double[] HIGHS = GameObservationSpace.createValueArray(NetworkUtil.HIGH_VALUE);
+    // Number of values every input of a finite space can take
+    private static final int NUMBER_OF_VALUES = (int) (NetworkUtil.HIGH_VALUE - NetworkUtil.LOW_VALUE) + 1;
+
+    // Created once, learners only read them
+    private final INDArray low = Nd4j.create(LOWS).castTo(NetworkUtil.DATA_TYPE);
+    private final INDArray high = Nd4j.create(HIGHS).castTo(NetworkUtil.DATA_TYPE);
 
     @Override
     public String getName() {
@@ -22,19 +31,84 @@ public class GameObservationSpace implements ObservationSpace<GameState> {
 
     @Override
     public int[] getShape() {
+        // Shape of a single observation, learners add the batch dimension themselves
         return new int[] {
-                1, NetworkUtil.NUMBER_OF_INPUTS
+                NetworkUtil.NUMBER_OF_INPUTS
         };
     }
 
     @Override
     public INDArray getLow() {
-        return Nd4j.create(LOWS);
+        return low;
     }
 
     @Override
     public INDArray getHigh() {
-        return Nd4j.create(HIGHS);
+        return high;
+    }
+
+    /**
+     * Used to check if the space has a finite number of observations.
+     *
+     * @return Returns true if every input only takes the whole numbers between the low and the high value.
+     */
+    public boolean isFinite() {
+        return NetworkUtil.FEATURE_SET.isTernary()
+                && Math.pow(NUMBER_OF_VALUES, NetworkUtil.NUMBER_OF_INPUTS) <= Integer.MAX_VALUE;
+    }
+
+    /**
+     * Get the number of observations of a finite space.
+     *
+     * @return Returns number of values to the power of number of inputs (81 for the basic set).
+     */
+    public int getNumberOfObservations() {
+        checkFinite();
+
+        int numberOfObservations = 1;
+        for (int i = 0; i < NetworkUtil.NUMBER_OF_INPUTS; i++) {
+            numberOfObservations *= NUMBER_OF_VALUES;
+        }
+
+        return numberOfObservations;
+    }
+
+    /**
+     * Get the index of an observation of a finite space, every input is one digit of the index.
+     *
+     * @param observation Observation, every value has to be a whole number between the low and the high value.
+     * @return Returns index between 0 and {@link #getNumberOfObservations()} (exclusive).
+     */
+    public int getIndex(final double[] observation) {
+        int index = 0;
+        for (int i = 0; i < NetworkUtil.NUMBER_OF_INPUTS; i++) {
+            index = index * NUMBER_OF_VALUES + (int) (observation[i] - NetworkUtil.LOW_VALUE);
+        }
+
+        return index;
+    }
+
+    /**
+     * Write the observation of an index of a finite space, the reverse of {@link #getIndex(double[])}.
+     *
+     * @param index Index of the observation.
+     * @param observation Array into which the observation is written.
+     */
+    public void getObservation(final int index, final double[] observation) {
+        checkFinite();
+
+        int remaining = index;
+        for (int i = NetworkUtil.NUMBER_OF_INPUTS - 1; i >= 0; i--) {
+            observation[i] = NetworkUtil.LOW_VALUE + remaining % NUMBER_OF_VALUES;
+            remaining /= NUMBER_OF_VALUES;
+        }
+    }
+
+    private void checkFinite() {
+        if (!isFinite()) {
+            throw new IllegalStateException("Observation space of " + NetworkUtil.FEATURE_SET + " features is not "
+                    + "finite");
+        }
     }
 
     private static double[] createValueArray(final double value) {
@@ -4,16 +4,29 @@ import org.deeplearning4j.rl4j.space.Encodable;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.factory.Nd4j;
 
+/**
+ * Observation of the game state. Inputs are kept in an ND4J array which is handed to the network as it is, so
+ * accessing the data does not copy it.
+ *
+ * @author mirza
+ */
 public class GameState implements Encodable {
-    private final double[] inputs;
+    private final INDArray data;
 
     public GameState(final double[] inputs) {
-        this.inputs = inputs;
+        this(Nd4j.create(inputs));
+    }
+
+    /**
+     * @param data Vector containing the inputs, it is not copied.
+     */
+    public GameState(final INDArray data) {
+        this.data = data;
     }
 
     @Override
     public double[] toArray() {
-        return inputs;
+        return data.toDoubleVector();
     }
 
     @Override
@@ -23,17 +36,20 @@ public class GameState implements Encodable {
 
     @Override
     public INDArray getData() {
-        return Nd4j.create(inputs);
+        return data;
     }
 
+    /**
+     * Get inputs as a matrix with a single row, the matrix is a view of the data.
+     *
+     * @return .
+     */
     public INDArray getMatrix() {
-        return Nd4j.create(new double[][] {
-                inputs
-        });
+        return data.reshape(1, data.length());
     }
 
     @Override
-    public Encodable dup() {
-        return null;
+    public GameState dup() {
+        return new GameState(data.dup());
     }
 }
@@ -0,0 +1,344 @@
+package com.lilium.snake.network;
+
+import com.lilium.snake.network.util.NetworkUtil;
+import org.deeplearning4j.rl4j.experience.ExperienceHandler;
+import org.deeplearning4j.rl4j.learning.sync.Transition;
+import org.deeplearning4j.rl4j.observation.Observation;
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Replay memory storing transitions in packed primitive arrays instead of RL4J transition objects. Observation values
+ * are -1, 0 or 1 so every value takes 2 bits, with 4 inputs an observation takes a single byte. Together with the next
+ * observation, the action and terminal flag (one byte) and the reward (float) a transition takes 7 bytes, so the
+ * memory can hold tens of millions of transitions in a handful of arrays which the garbage collector never has to
+ * trace.
+ * <p>
+ * Sampled batches are decoded straight into preallocated matrices. RL4J learners expect a list of transitions, the
+ * transitions returned by {@link #generateTrainingBatch()} therefore only hold row views of these matrices, which are
+ * overwritten by the next batch.
+ *
+ * @author mirza
+ */
+public class PackedExperienceHandler implements ExperienceHandler<Integer, Transition<Integer>> {
+    // region Member
+    private static final int BITS_PER_VALUE = 2;
+    private static final int VALUES_PER_BYTE = Byte.SIZE / BITS_PER_VALUE;
+    // Action and terminal flag share a byte, the highest bit is the flag
+    private static final int TERMINAL_FLAG = 0x80;
+    private static final int ACTION_MASK = 0x7F;
+
+    private final int capacity;
+    private final int batchSize;
+    private final int numberOfInputs;
+    private final int bytesPerObservation;
+    private final SplittableRandom random;
+
+    // Ring buffer of transitions, position is the index at which the next transition is written
+    private final byte[] observations;
+    private final byte[] nextObservations;
+    private final byte[] actionsAndTerminalFlags;
+    private final float[] rewards;
+    private int position;
+    private int size;
+
+    // Transition waiting for its next observation
+    private final byte[] pendingObservation;
+    private boolean hasPending;
+    private int pendingAction;
+    private double pendingReward;
+    private boolean pendingTerminal;
+
+    // Preallocated batch matrices, one row per sampled transition
+    private final INDArray batchObservations;
+    private final INDArray batchNextObservations;
+    private final DataBuffer batchObservationsBuffer;
+    private final DataBuffer batchNextObservationsBuffer;
+    private final int[] sampledIndexes;
+    // endregion
+
+    // region Setup
+    /**
+     * @param capacity Maximum number of stored transitions, oldest transitions are overwritten once it is reached.
+     * @param batchSize Number of transitions in a training batch.
+     * @param numberOfInputs Number of values of an observation.
+     * @param seed Seed of the random generator used to sample batches.
+     */
+    public PackedExperienceHandler(final int capacity,
+                                   final int batchSize,
+                                   final int numberOfInputs,
+                                   final long seed) {
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.numberOfInputs = numberOfInputs;
+        this.bytesPerObservation = (numberOfInputs + VALUES_PER_BYTE - 1) / VALUES_PER_BYTE;
+        this.random = new SplittableRandom(seed);
+
+        this.observations = new byte[Math.multiplyExact(capacity, bytesPerObservation)];
+        this.nextObservations = new byte[Math.multiplyExact(capacity, bytesPerObservation)];
+        this.actionsAndTerminalFlags = new byte[capacity];
+        this.rewards = new float[capacity];
+        this.pendingObservation = new byte[bytesPerObservation];
+
+        this.batchObservations = Nd4j.create(NetworkUtil.DATA_TYPE, batchSize, numberOfInputs);
+        this.batchNextObservations = Nd4j.create(NetworkUtil.DATA_TYPE, batchSize, numberOfInputs);
+        this.batchObservationsBuffer = batchObservations.data();
+        this.batchNextObservationsBuffer = batchNextObservations.data();
+        this.sampledIndexes = new int[batchSize];
+    }
+    // endregion
+
+    // region Implementation
+    @Override
+    public void addExperience(final Observation observation,
+                              final Integer action,
+                              final double reward,
+                              final boolean isTerminal) {
+        if (action < 0 || action > ACTION_MASK) {
+            throw new IllegalArgumentException("Action must be between 0 and " + ACTION_MASK + " but was " + action);
+        }
+
+        // Current observation is the next observation of the previous transition
+        storePending(observation);
+
+        pack(observation.getData(), pendingObservation, 0);
+        pendingAction = action;
+        pendingReward = reward;
+        pendingTerminal = isTerminal;
+        hasPending = true;
+    }
+
+    @Override
+    public void setFinalObservation(final Observation observation) {
+        storePending(observation);
+    }
+
+    @Override
+    public int getTrainingBatchSize() {
+        return Math.min(batchSize, size);
+    }
+
+    @Override
+    public List<Transition<Integer>> generateTrainingBatch() {
+        final int numberOfTransitions = sampleBatch();
+
+        final List<Transition<Integer>> transitions = new ArrayList<>(numberOfTransitions);
+        for (int i = 0; i < numberOfTransitions; i++) {
+            final int index = sampledIndexes[i];
+            final Transition<Integer> transition = new Transition<>(
+                    new Observation(batchObservations.getRow(i, true)),
+                    getAction(index),
+                    getReward(index),
+                    isTerminal(index)
+            );
+            transition.setNextObservation(new Observation(batchNextObservations.getRow(i, true)));
+            transitions.add(transition);
+        }
+
+        return transitions;
+    }
+
+    /**
+     * Sample a batch of transitions uniformly and decode their observations into {@link #getBatchObservations()} and
+     * {@link #getBatchNextObservations()}. Nothing is allocated, so learners which work with matrices directly can use
+     * this instead of {@link #generateTrainingBatch()}.
+     *
+     * @return Returns number of sampled transitions, the first rows of the batch matrices hold them.
+     */
+    public int sampleBatch() {
+        final int numberOfTransitions = getTrainingBatchSize();
+        for (int i = 0; i < numberOfTransitions; i++) {
+            final int index = random.nextInt(size);
+            sampledIndexes[i] = index;
+
+            final long offset = (long) i * numberOfInputs;
+            unpack(observations, index * bytesPerObservation, batchObservationsBuffer, offset);
+            unpack(nextObservations, index * bytesPerObservation, batchNextObservationsBuffer, offset);
+        }
+
+        return numberOfTransitions;
+    }
+
+    /**
+     * Get observations of the last sampled batch, one row per transition. Matrix is reused by every batch.
+     *
+     * @return .
+     */
+    public INDArray getBatchObservations() {
+        return batchObservations;
+    }
+
+    /**
+     * Get next observations of the last sampled batch, one row per transition. Matrix is reused by every batch.
+     *
+     * @return .
+     */
+    public INDArray getBatchNextObservations() {
+        return batchNextObservations;
+    }
+
+    /**
+     * Get index of a transition of the last sampled batch, used to read its action, reward and terminal flag.
+     *
+     * @param row Row of the transition in the batch matrices.
+     * @return .
+     */
+    public int getSampledIndex(final int row) {
+        return sampledIndexes[row];
+    }
+
+    public int getAction(final int index) {
+        return actionsAndTerminalFlags[index] & ACTION_MASK;
+    }
+
+    public float getReward(final int index) {
+        return rewards[index];
+    }
+
+    public boolean isTerminal(final int index) {
+        return (actionsAndTerminalFlags[index] & TERMINAL_FLAG) != 0;
+    }
+
+    /**
+     * Get number of stored transitions.
+     *
+     * @return .
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Copy the stored transitions, e.g. to write them into a checkpoint. Copying the packed arrays is cheap enough to
+     * be done between two training steps.
+     *
+     * @return .
+     */
+    public State getState() {
+        return new State(
+                numberOfInputs,
+                observations.clone(),
+                nextObservations.clone(),
+                actionsAndTerminalFlags.clone(),
+                rewards.clone(),
+                position,
+                size
+        );
+    }
+
+    /**
+     * Replace the stored transitions with the copied ones, e.g. when resuming training from a checkpoint.
+     *
+     * @param state Copy of a memory with the same capacity and number of inputs.
+     */
+    public void restore(final State state) {
+        if (state.numberOfInputs != numberOfInputs || state.rewards.length != capacity) {
+            throw new IllegalArgumentException("State of a memory with capacity " + state.rewards.length + " and "
+                    + state.numberOfInputs + " inputs can not be restored into a memory with capacity " + capacity
+                    + " and " + numberOfInputs + " inputs");
+        }
+
+        System.arraycopy(state.observations, 0, observations, 0, observations.length);
+        System.arraycopy(state.nextObservations, 0, nextObservations, 0, nextObservations.length);
+        System.arraycopy(state.actionsAndTerminalFlags, 0, actionsAndTerminalFlags, 0, capacity);
+        System.arraycopy(state.rewards, 0, rewards, 0, capacity);
+        position = state.position;
+        size = state.size;
+        hasPending = false;
+    }
+
+    @Override
+    public void reset() {
+        // Stored transitions are kept, only the transition of the ended episode is dropped
+        hasPending = false;
+    }
+    // endregion
+
+    // region Helper
+    private void storePending(final Observation nextObservation) {
+        if (!hasPending) {
+            return;
+        }
+
+        System.arraycopy(pendingObservation, 0, observations, position * bytesPerObservation, bytesPerObservation);
+        pack(nextObservation.getData(), nextObservations, position * bytesPerObservation);
+        actionsAndTerminalFlags[position] = (byte) (pendingAction | (pendingTerminal ? TERMINAL_FLAG : 0));
+        rewards[position] = (float) pendingReward;
+
+        position = position + 1 == capacity ? 0 : position + 1;
+        size = Math.min(size + 1, capacity);
+        hasPending = false;
+    }
+
+    private void pack(final INDArray observation, final byte[] target, final int targetOffset) {
+        if (observation.length() != numberOfInputs) {
+            throw new IllegalArgumentException("Observation must have " + numberOfInputs
+                    + " values but had " + observation.length());
+        }
+
+        for (int i = 0; i < bytesPerObservation; i++) {
+            target[targetOffset + i] = 0;
+        }
+
+        for (int i = 0; i < numberOfInputs; i++) {
+            final double value = observation.getDouble(i);
+            if (value != -1 && value != 0 && value != 1) {
+                throw new IllegalArgumentException("Observation values must be -1, 0 or 1 but was " + value);
+            }
+
+            // -1, 0 and 1 are stored as 0, 1 and 2
+            final int code = (int) value + 1;
+            target[targetOffset + i / VALUES_PER_BYTE] |= code << (i % VALUES_PER_BYTE * BITS_PER_VALUE);
+        }
+    }
+
+    private void unpack(final byte[] source, final int sourceOffset, final DataBuffer target, final long targetOffset) {
+        for (int i = 0; i < numberOfInputs; i++) {
+            final int shift = i % VALUES_PER_BYTE * BITS_PER_VALUE;
+            final int code = (source[sourceOffset + i / VALUES_PER_BYTE] >> shift) & 0b11;
+            target.put(targetOffset + i, code - 1);
+        }
+    }
+    // endregion
+
+    /**
+     * Copy of the stored transitions, see {@link #getState()}.
+     */
+    public static final class State implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final int numberOfInputs;
+        private final byte[] observations;
+        private final byte[] nextObservations;
+        private final byte[] actionsAndTerminalFlags;
+        private final float[] rewards;
+        private final int position;
+        private final int size;
+
+        private State(final int numberOfInputs,
+                      final byte[] observations,
+                      final byte[] nextObservations,
+                      final byte[] actionsAndTerminalFlags,
+                      final float[] rewards,
+                      final int position,
+                      final int size) {
+            this.numberOfInputs = numberOfInputs;
+            this.observations = observations;
+            this.nextObservations = nextObservations;
+            this.actionsAndTerminalFlags = actionsAndTerminalFlags;
+            this.rewards = rewards;
+            this.position = position;
+            this.size = size;
+        }
+
+        public int size() {
+            return size;
+        }
+    }
+}
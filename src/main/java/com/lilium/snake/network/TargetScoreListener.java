@@ -0,0 +1,111 @@
+package com.lilium.snake.network;
+
+import org.deeplearning4j.rl4j.learning.IEpochTrainer;
+import org.deeplearning4j.rl4j.learning.ILearning;
+import org.deeplearning4j.rl4j.learning.listener.TrainingListener;
+import org.deeplearning4j.rl4j.util.IDataManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Training listener which stops the training once the average score of the last finished episodes reaches the target
+ * score, and records how long it took. It can be shared by all threads of an async learner.
+ *
+ * @author mirza
+ */
+public class TargetScoreListener implements TrainingListener {
+    private static final Logger LOG = LoggerFactory.getLogger(TargetScoreListener.class);
+
+    private final double targetScore;
+    private final int maxEpisodeSteps;
+    private final int[] lastScores;
+
+    private long trainingStart;
+    private int finishedEpisodes;
+    private volatile long timeToTargetMs = -1;
+
+    /**
+     * @param targetScore Average score at which the training is stopped.
+     * @param maxEpisodeSteps Number of steps after which the learner ends an episode (max epoch step).
+     * @param numberOfEpisodes Number of last finished episodes over which the average is calculated.
+     */
+    public TargetScoreListener(final double targetScore, final int maxEpisodeSteps, final int numberOfEpisodes) {
+        this.targetScore = targetScore;
+        this.maxEpisodeSteps = maxEpisodeSteps;
+        this.lastScores = new int[numberOfEpisodes];
+    }
+
+    @Override
+    public ListenerResponse onTrainingStart() {
+        trainingStart = System.nanoTime();
+        return ListenerResponse.CONTINUE;
+    }
+
+    @Override
+    public void onTrainingEnd() {
+        if (!isTargetReached()) {
+            LOG.info("Training finished without reaching the average score of '{}'", targetScore);
+        }
+    }
+
+    @Override
+    public ListenerResponse onNewEpoch(final IEpochTrainer trainer) {
+        return getResponse();
+    }
+
+    @Override
+    public ListenerResponse onEpochTrainingResult(final IEpochTrainer trainer, final IDataManager.StatEntry statEntry) {
+        // Async learners report every sub-epoch (n steps), so check if the episode has actually finished
+        if (trainer.getMdp() instanceof Environment) {
+            final Environment environment = (Environment) trainer.getMdp();
+            if (environment.isDone() || trainer.getCurrentEpisodeStepCount() >= maxEpisodeSteps) {
+                onEpisodeFinished(environment.getScore());
+            }
+        }
+
+        return getResponse();
+    }
+
+    @Override
+    public ListenerResponse onTrainingProgress(final ILearning learning) {
+        return getResponse();
+    }
+
+    public boolean isTargetReached() {
+        return timeToTargetMs >= 0;
+    }
+
+    /**
+     * Get wall-clock time from the start of the training until the target score was reached.
+     *
+     * @return Returns time in milliseconds, or -1 if the target has not been reached.
+     */
+    public long getTimeToTargetMs() {
+        return timeToTargetMs;
+    }
+
+    private synchronized void onEpisodeFinished(final int score) {
+        lastScores[finishedEpisodes % lastScores.length] = score;
+        finishedEpisodes++;
+
+        if (isTargetReached() || finishedEpisodes < lastScores.length) {
+            return;
+        }
+
+        double sum = 0;
+        for (final int lastScore : lastScores) {
+            sum += lastScore;
+        }
+
+        final double averageScore = sum / lastScores.length;
+        if (averageScore >= targetScore) {
+            timeToTargetMs = (System.nanoTime() - trainingStart) / 1_000_000;
+            LOG.info("Average score of '{}' reached after '{}' episodes and '{}' ms",
+                    averageScore, finishedEpisodes, timeToTargetMs);
+        }
+    }
+
+    private ListenerResponse getResponse() {
+        return isTargetReached() ? ListenerResponse.STOP : ListenerResponse.CONTINUE;
+    }
+}
@@ -0,0 +1,212 @@
+package com.lilium.snake.network;
+
+import com.lilium.snake.game.GameEngine;
+import com.lilium.snake.game.util.GameUtil;
+import com.lilium.snake.network.util.GameStateUtil;
+import com.lilium.snake.network.util.NetworkUtil;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.util.SplittableRandom;
+
+/**
+ * Environment holding N independent games which are stepped together. Observations of all games are collected into
+ * one N x {@link NetworkUtil#NUMBER_OF_INPUTS} matrix so that a single network forward pass selects the actions of all
+ * games. Finished episodes are reset automatically.
+ *
+ * @author mirza
+ */
+public class VectorizedEnvironment {
+    // region Member
+    private final GameEngine[] games;
+    private final INDArray observations;
+    private final DataBuffer observationsBuffer;
+
+    // Reused buffers so that a step does not allocate
+    private final double[] actionValues = new double[Action.values().length];
+    private final int[] actions;
+    private final double[] rewards;
+    private final boolean[] done;
+    private final int[] lastEpisodeScores;
+
+    private long steps;
+    private long finishedEpisodes;
+    private long finishedEpisodesScore;
+    // endregion
+
+    // region Setup
+    public VectorizedEnvironment(final int numberOfGames) {
+        this(numberOfGames, NetworkUtil.SEED);
+    }
+
+    /**
+     * @param numberOfGames Number of games stepped together.
+     * @param seed Seed from which the random generator of every game is split.
+     */
+    public VectorizedEnvironment(final int numberOfGames, final long seed) {
+        this(numberOfGames, GameUtil.DEFAULT_NUMBER_OF_CELLS, seed);
+    }
+
+    /**
+     * @param numberOfGames Number of games stepped together.
+     * @param numberOfCells Number of cells in one row or column of the board of every game.
+     * @param seed Seed from which the random generator of every game is split.
+     */
+    public VectorizedEnvironment(final int numberOfGames, final int numberOfCells, final long seed) {
+        final SplittableRandom random = new SplittableRandom(seed);
+        this.games = new GameEngine[numberOfGames];
+        for (int i = 0; i < numberOfGames; i++) {
+            games[i] = new GameEngine(numberOfCells, random.split());
+        }
+
+        this.observations = Nd4j.create(NetworkUtil.DATA_TYPE, numberOfGames, NetworkUtil.NUMBER_OF_INPUTS);
+        this.observationsBuffer = observations.data();
+        this.actions = new int[numberOfGames];
+        this.rewards = new double[numberOfGames];
+        this.done = new boolean[numberOfGames];
+        this.lastEpisodeScores = new int[numberOfGames];
+
+        reset();
+    }
+    // endregion
+
+    // region Implementation
+    /**
+     * Reset all games and collect their observations.
+     *
+     * @return Returns observations of all games, one row per game.
+     */
+    public INDArray reset() {
+        for (int i = 0; i < games.length; i++) {
+            games[i].reset();
+            done[i] = false;
+            writeObservation(i);
+        }
+
+        return observations;
+    }
+
+    /**
+     * Run a single forward pass for the observations of all games and step every game with its best action.
+     *
+     * @param network Network used to select the actions.
+     * @return Returns observations of all games after the step, one row per game.
+     */
+    public INDArray step(final MultiLayerNetwork network) {
+        final INDArray output = network.output(observations, false);
+
+        for (int i = 0; i < games.length; i++) {
+            for (int j = 0; j < actionValues.length; j++) {
+                actionValues[j] = output.getDouble(i, j);
+            }
+
+            actions[i] = GameStateUtil.getMaxValueIndex(actionValues);
+        }
+
+        return step(actions);
+    }
+
+    /**
+     * Step every game with its action. Games that have finished are reset, their {@link #isDone(int)} flag is set
+     * and their observation is the first observation of the new episode.
+     *
+     * @param actionIndexes Index of the action to take, one per game.
+     * @return Returns observations of all games after the step, one row per game.
+     */
+    public INDArray step(final int[] actionIndexes) {
+        for (int i = 0; i < games.length; i++) {
+            final GameEngine game = games[i];
+
+            rewards[i] = game.step(Action.getActionByIndex(actionIndexes[i]));
+            done[i] = !game.isOngoing();
+
+            if (done[i]) {
+                lastEpisodeScores[i] = game.getScore();
+                finishedEpisodes++;
+                finishedEpisodesScore += game.getScore();
+
+                game.reset();
+            }
+
+            writeObservation(i);
+        }
+
+        steps += games.length;
+        return observations;
+    }
+
+    public int getNumberOfGames() {
+        return games.length;
+    }
+
+    /**
+     * Get observations of all games, one row per game. The matrix is reused between steps.
+     *
+     * @return .
+     */
+    public INDArray getObservations() {
+        return observations;
+    }
+
+    /**
+     * Get reward of the last step for the game.
+     *
+     * @param index Index of the game.
+     * @return .
+     */
+    public double getReward(final int index) {
+        return rewards[index];
+    }
+
+    /**
+     * Used to check if the game finished its episode in the last step (it has already been reset).
+     *
+     * @param index Index of the game.
+     * @return .
+     */
+    public boolean isDone(final int index) {
+        return done[index];
+    }
+
+    /**
+     * Get score of the last finished episode of the game.
+     *
+     * @param index Index of the game.
+     * @return .
+     */
+    public int getLastEpisodeScore(final int index) {
+        return lastEpisodeScores[index];
+    }
+
+    /**
+     * Get number of steps over all games.
+     *
+     * @return .
+     */
+    public long getSteps() {
+        return steps;
+    }
+
+    public long getFinishedEpisodes() {
+        return finishedEpisodes;
+    }
+
+    /**
+     * Get average score of all finished episodes.
+     *
+     * @return Returns average score, 0 if no episode has finished yet.
+     */
+    public double getAverageScore() {
+        return finishedEpisodes == 0 ? 0 : (double) finishedEpisodesScore / finishedEpisodes;
+    }
+    // endregion
+
+    // region Helper
+    private void writeObservation(final int index) {
+        // Observations matrix is in row-major order so the row of the game starts at index * number of inputs
+        games[index].buildStateObservation(observationsBuffer, (long) index * NetworkUtil.NUMBER_OF_INPUTS);
+    }
+    // endregion
+}
@@ -0,0 +1,266 @@
+package com.lilium.snake.network.checkpoint;
+
+import com.lilium.snake.network.PackedExperienceHandler;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.rl4j.learning.IEpochTrainer;
+import org.deeplearning4j.rl4j.learning.ILearning;
+import org.deeplearning4j.rl4j.learning.listener.TrainingListener;
+import org.deeplearning4j.rl4j.learning.sync.qlearning.QLearning;
+import org.deeplearning4j.rl4j.util.IDataManager;
+import org.deeplearning4j.util.ModelSerializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Training listener which writes a checkpoint every N steps. The network (with its updater state) and the replay
+ * memory are copied on the learner thread between two epochs, the zip file is written on a background thread so the
+ * learner does not wait for the disk. The last K checkpoints are kept, together with a copy of the one with the best
+ * average epoch reward.
+ * <p>
+ * Every checkpoint is a regular network zip which can be loaded with {@link ModelSerializer}, the training state
+ * needed to resume the training is stored as an additional entry, see {@link #loadTrainingCheckpoint(Path)}.
+ *
+ * @author mirza
+ */
+public class CheckpointListener implements TrainingListener, AutoCloseable {
+    private static final Logger LOG = LoggerFactory.getLogger(CheckpointListener.class);
+    private static final String TRAINING_CHECKPOINT_KEY = "trainingCheckpoint";
+    private static final String BEST_CHECKPOINT_NAME = "checkpoint-best.zip";
+
+    // region Member
+    private final QLearning<?, ?, ?> learning;
+    private final PackedExperienceHandler experienceHandler;
+    private final Path directory;
+    private final int checkpointSteps;
+    private final int numberOfCheckpoints;
+    private final double[] lastRewards;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "checkpoint-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private int finishedEpochs;
+    private int nextCheckpointStep;
+    private int lastCheckpointStep = -1;
+    private double bestAverageReward = Double.NEGATIVE_INFINITY;
+    // Written checkpoints, only accessed by the writer thread
+    private final Deque<Path> checkpoints = new ArrayDeque<>();
+    // endregion
+
+    // region Setup
+    /**
+     * @param learning Learner whose network is stored.
+     * @param experienceHandler Replay memory to store, null if the learner does not use the packed memory.
+     * @param directory Directory into which checkpoints are written.
+     * @param checkpointSteps Number of steps between two checkpoints.
+     * @param numberOfCheckpoints Number of last checkpoints to keep.
+     * @param numberOfEpochs Number of last epochs over which the average reward is calculated.
+     * @throws IOException Thrown if directory can not be created.
+     */
+    public CheckpointListener(final QLearning<?, ?, ?> learning,
+                              final PackedExperienceHandler experienceHandler,
+                              final Path directory,
+                              final int checkpointSteps,
+                              final int numberOfCheckpoints,
+                              final int numberOfEpochs) throws IOException {
+        this.learning = learning;
+        this.experienceHandler = experienceHandler;
+        this.directory = Files.createDirectories(directory);
+        this.checkpointSteps = checkpointSteps;
+        this.numberOfCheckpoints = numberOfCheckpoints;
+        this.lastRewards = new double[numberOfEpochs];
+        this.nextCheckpointStep = learning.getStepCount() + checkpointSteps;
+    }
+    // endregion
+
+    // region Implementation
+    /**
+     * Load the training state of a checkpoint.
+     *
+     * @param checkpoint Checkpoint zip file.
+     * @return Returns training state, null if the file does not contain it.
+     */
+    public static TrainingCheckpoint loadTrainingCheckpoint(final Path checkpoint) {
+        if (!ModelSerializer.listObjectsInFile(checkpoint.toFile()).contains(TRAINING_CHECKPOINT_KEY)) {
+            return null;
+        }
+
+        return ModelSerializer.getObjectFromFile(checkpoint.toFile(), TRAINING_CHECKPOINT_KEY);
+    }
+
+    /**
+     * Load the network of a checkpoint together with its updater state, so that the training can be resumed.
+     *
+     * @param checkpoint Checkpoint zip file.
+     * @return Returns loaded network.
+     * @throws IOException Thrown if file can not be read.
+     */
+    public static MultiLayerNetwork loadNetwork(final Path checkpoint) throws IOException {
+        return ModelSerializer.restoreMultiLayerNetwork(checkpoint.toFile(), true);
+    }
+
+    /**
+     * Restore the training state of a checkpoint into the learner, its replay memory and this listener. Network has to
+     * be loaded separately with {@link #loadNetwork(Path)} when the learner is created.
+     * <p>
+     * Best checkpoint of the previous run is copied into the directory of this one, so it can still be found here if
+     * the resumed training does not beat it. Without it the best average reward starts over.
+     *
+     * @param file Checkpoint zip file the state was loaded from.
+     * @param checkpoint Training state to restore.
+     * @throws IOException Thrown if the best checkpoint can not be copied.
+     */
+    public void restore(final Path file, final TrainingCheckpoint checkpoint) throws IOException {
+        learning.setStepCount(checkpoint.getStepCount());
+        learning.setEpochCount(checkpoint.getEpochCount());
+        if (experienceHandler != null && checkpoint.getReplayMemory() != null) {
+            experienceHandler.restore(checkpoint.getReplayMemory());
+        }
+
+        final Path bestCheckpoint = file.resolveSibling(BEST_CHECKPOINT_NAME);
+        final Path target = directory.resolve(BEST_CHECKPOINT_NAME);
+        if (Files.exists(bestCheckpoint)) {
+            if (!Files.exists(target) || !Files.isSameFile(bestCheckpoint, target)) {
+                Files.copy(bestCheckpoint, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            bestAverageReward = checkpoint.getBestAverageReward();
+        } else {
+            LOG.warn("Best checkpoint '{}' does not exist, best average reward starts over", bestCheckpoint);
+        }
+
+        lastCheckpointStep = checkpoint.getStepCount();
+        nextCheckpointStep = checkpoint.getStepCount() + checkpointSteps;
+        LOG.info("Resuming training at step '{}' with '{}' transitions in the replay memory",
+                checkpoint.getStepCount(), experienceHandler != null ? experienceHandler.size() : 0);
+    }
+
+    @Override
+    public ListenerResponse onTrainingStart() {
+        return ListenerResponse.CONTINUE;
+    }
+
+    @Override
+    public void onTrainingEnd() {
+        checkpoint();
+    }
+
+    @Override
+    public ListenerResponse onNewEpoch(final IEpochTrainer trainer) {
+        return ListenerResponse.CONTINUE;
+    }
+
+    @Override
+    public ListenerResponse onEpochTrainingResult(final IEpochTrainer trainer, final IDataManager.StatEntry statEntry) {
+        lastRewards[finishedEpochs % lastRewards.length] = statEntry.getReward();
+        finishedEpochs++;
+
+        if (trainer.getStepCount() >= nextCheckpointStep) {
+            checkpoint();
+            nextCheckpointStep = trainer.getStepCount() + checkpointSteps;
+        }
+
+        return ListenerResponse.CONTINUE;
+    }
+
+    @Override
+    public ListenerResponse onTrainingProgress(final ILearning learning) {
+        return ListenerResponse.CONTINUE;
+    }
+
+    /**
+     * Wait until all pending checkpoints are written.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                LOG.warn("Checkpoints are still being written");
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    // endregion
+
+    // region Helper
+    private void checkpoint() {
+        // Training may end right after a checkpoint was made
+        if (learning.getStepCount() == lastCheckpointStep) {
+            return;
+        }
+        lastCheckpointStep = learning.getStepCount();
+
+        final double averageReward = getAverageReward();
+        final boolean best = averageReward > bestAverageReward;
+        if (best) {
+            bestAverageReward = averageReward;
+        }
+
+        // Copy everything on the learner thread, the learner keeps changing the originals
+        final MultiLayerNetwork network = ((MultiLayerNetwork) learning.getNeuralNet().getNeuralNetworks()[0]).clone();
+        final TrainingCheckpoint checkpoint = new TrainingCheckpoint(
+                learning.getStepCount(),
+                learning.getEpochCount(),
+                averageReward,
+                bestAverageReward,
+                experienceHandler != null ? experienceHandler.getState() : null
+        );
+
+        executor.execute(() -> write(network, checkpoint, best));
+    }
+
+    private void write(final MultiLayerNetwork network, final TrainingCheckpoint checkpoint, final boolean best) {
+        final long start = System.nanoTime();
+        final Path file = directory.resolve("checkpoint-" + checkpoint.getStepCount() + ".zip");
+        final Path temporaryFile = directory.resolve(file.getFileName() + ".tmp");
+        try {
+            // Write into a temporary file first, so a crash never leaves a broken checkpoint behind
+            ModelSerializer.writeModel(network, temporaryFile.toFile(), true);
+            ModelSerializer.addObjectToFile(temporaryFile.toFile(), TRAINING_CHECKPOINT_KEY, checkpoint);
+            Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            if (best) {
+                Files.copy(file, directory.resolve(BEST_CHECKPOINT_NAME), StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            checkpoints.remove(file);
+            checkpoints.addLast(file);
+            while (checkpoints.size() > numberOfCheckpoints) {
+                Files.deleteIfExists(checkpoints.removeFirst());
+            }
+
+            LOG.info("Checkpoint '{}' with average reward '{}' written in '{}' ms",
+                    file, checkpoint.getAverageReward(), (System.nanoTime() - start) / 1_000_000);
+        } catch (final IOException e) {
+            LOG.error("Failed to write checkpoint '{}'", file, e);
+        }
+    }
+
+    private double getAverageReward() {
+        final int numberOfEpochs = Math.min(finishedEpochs, lastRewards.length);
+        if (numberOfEpochs == 0) {
+            return Double.NEGATIVE_INFINITY;
+        }
+
+        double sum = 0;
+        for (int i = 0; i < numberOfEpochs; i++) {
+            sum += lastRewards[i];
+        }
+
+        return sum / numberOfEpochs;
+    }
+    // endregion
+}
@@ -0,0 +1,64 @@
+package com.lilium.snake.network.checkpoint;
+
+import com.lilium.snake.network.PackedExperienceHandler;
+
+import java.io.Serializable;
+
+/**
+ * Training state stored next to the network in a checkpoint, used to resume the training where it stopped. Epsilon
+ * of the learner is derived from its step count, so restoring the step count restores the epsilon as well.
+ *
+ * @author mirza
+ */
+public class TrainingCheckpoint implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final int stepCount;
+    private final int epochCount;
+    private final double averageReward;
+    private final double bestAverageReward;
+    // Null if the learner does not use the packed replay memory
+    private final PackedExperienceHandler.State replayMemory;
+
+    public TrainingCheckpoint(final int stepCount,
+                              final int epochCount,
+                              final double averageReward,
+                              final double bestAverageReward,
+                              final PackedExperienceHandler.State replayMemory) {
+        this.stepCount = stepCount;
+        this.epochCount = epochCount;
+        this.averageReward = averageReward;
+        this.bestAverageReward = bestAverageReward;
+        this.replayMemory = replayMemory;
+    }
+
+    public int getStepCount() {
+        return stepCount;
+    }
+
+    public int getEpochCount() {
+        return epochCount;
+    }
+
+    /**
+     * Get average reward of the last epochs before the checkpoint.
+     *
+     * @return .
+     */
+    public double getAverageReward() {
+        return averageReward;
+    }
+
+    /**
+     * Get best average reward of all checkpoints of the training up to this one.
+     *
+     * @return .
+     */
+    public double getBestAverageReward() {
+        return bestAverageReward;
+    }
+
+    public PackedExperienceHandler.State getReplayMemory() {
+        return replayMemory;
+    }
+}
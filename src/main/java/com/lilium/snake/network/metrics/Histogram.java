@@ -0,0 +1,110 @@
+package com.lilium.snake.network.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of non-negative values (e.g. durations in nanoseconds) with log-linear buckets, every power of
+ * two is split into 8 buckets so a recorded value is off by at most 12.5%. Recording is a single atomic increment, so
+ * it can be shared by many threads.
+ *
+ * @author mirza
+ */
+public class Histogram {
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int NUMBER_OF_BUCKETS = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(NUMBER_OF_BUCKETS);
+
+    /**
+     * Record the value, negative values are recorded as 0.
+     *
+     * @param value .
+     */
+    public void record(final long value) {
+        counts.incrementAndGet(getIndex(Math.max(value, 0)));
+    }
+
+    /**
+     * Get a copy of the bucket counts, used to calculate percentiles of all values recorded so far or (as difference
+     * of two copies) of an interval.
+     *
+     * @return .
+     */
+    public long[] getCounts() {
+        final long[] copy = new long[NUMBER_OF_BUCKETS];
+        for (int i = 0; i < NUMBER_OF_BUCKETS; i++) {
+            copy[i] = counts.get(i);
+        }
+
+        return copy;
+    }
+
+    /**
+     * Get value at the percentile of the bucket counts.
+     *
+     * @param counts Bucket counts, see {@link #getCounts()}.
+     * @param percentile Percentile between 0 and 100.
+     * @return Returns highest value of the bucket in which the percentile is, 0 if there are no values.
+     */
+    public static long getValueAtPercentile(final long[] counts, final double percentile) {
+        long total = 0;
+        for (final long count : counts) {
+            total += count;
+        }
+
+        if (total == 0) {
+            return 0;
+        }
+
+        final long rank = Math.max((long) Math.ceil(percentile / 100 * total), 1);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return getHighestValue(i);
+            }
+        }
+
+        return getHighestValue(counts.length - 1);
+    }
+
+    /**
+     * Subtract the earlier counts from the later ones, gives the counts of the values recorded in between.
+     *
+     * @param later Later bucket counts.
+     * @param earlier Earlier bucket counts.
+     * @return Returns counts of the interval.
+     */
+    public static long[] difference(final long[] later, final long[] earlier) {
+        final long[] difference = new long[later.length];
+        for (int i = 0; i < later.length; i++) {
+            difference[i] = later[i] - earlier[i];
+        }
+
+        return difference;
+    }
+
+    private static int getIndex(final long value) {
+        // Small values get a bucket each
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+
+        // Bucket is given by the highest bit, sub bucket by the next 3 bits
+        final int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        final int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    private static long getHighestValue(final int index) {
+        final int bucket = index / SUB_BUCKETS;
+        final int subBucket = index % SUB_BUCKETS;
+        if (bucket == 0) {
+            return subBucket;
+        }
+
+        final long lowest = (long) (SUB_BUCKETS + subBucket) << (bucket - 1);
+        return lowest + (1L << (bucket - 1)) - 1;
+    }
+}
@@ -0,0 +1,144 @@
+package com.lilium.snake.network.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically logs the {@link TrainingMetrics} of the last interval as a single line and appends it to a CSV file.
+ * Runs on its own daemon thread so the training loop is not slowed down by it. Time shares are summed over all
+ * threads recording in the metrics, with several async workers they can add up to more than 1.
+ *
+ * @author mirza
+ */
+public class MetricsReporter implements AutoCloseable {
+    private static final Logger LOG = LoggerFactory.getLogger(MetricsReporter.class);
+    private static final String CSV_HEADER = "elapsed_s,steps,steps_per_s,episodes_per_s,env_share,update_share,"
+            + "action_share,env_p50_us,env_p99_us,update_p50_us,update_p99_us,replay_size";
+
+    // region Member
+    private final TrainingMetrics metrics;
+    private final long intervalSeconds;
+    private final BufferedWriter csvWriter;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "metrics-reporter");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private TrainingMetrics.Snapshot lastSnapshot;
+    // endregion
+
+    // region Setup
+    /**
+     * @param metrics Metrics to report.
+     * @param intervalSeconds Seconds between two reports.
+     * @param csvFile File to which reports are appended, null to only log them.
+     * @throws IOException Thrown if CSV file can not be opened.
+     */
+    public MetricsReporter(final TrainingMetrics metrics,
+                           final long intervalSeconds,
+                           final Path csvFile) throws IOException {
+        this.metrics = metrics;
+        this.intervalSeconds = intervalSeconds;
+        this.csvWriter = csvFile != null ? Files.newBufferedWriter(csvFile, StandardCharsets.UTF_8) : null;
+        this.lastSnapshot = metrics.getSnapshot();
+
+        if (csvWriter != null) {
+            csvWriter.write(CSV_HEADER);
+            csvWriter.newLine();
+            csvWriter.flush();
+        }
+    }
+    // endregion
+
+    // region Implementation
+    /**
+     * Start reporting every interval.
+     */
+    public void start() {
+        executor.scheduleAtFixedRate(this::report, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stop reporting, the interval since the last report is reported one last time.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(intervalSeconds, TimeUnit.SECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        report();
+        if (csvWriter != null) {
+            try {
+                csvWriter.close();
+            } catch (final IOException e) {
+                LOG.error(e.getMessage(), e);
+            }
+        }
+    }
+    // endregion
+
+    // region Helper
+    private synchronized void report() {
+        final TrainingMetrics.Snapshot snapshot = metrics.getSnapshot();
+        final TrainingMetrics.Snapshot interval = snapshot.since(lastSnapshot);
+        lastSnapshot = snapshot;
+
+        LOG.info("Steps '{}' ({} /s), episodes/s '{}', time in environment '{}', update '{}', action '{}', "
+                        + "step p50/p99 '{}'/'{}' us, update p50/p99 '{}'/'{}' us, replay memory '{}'",
+                snapshot.getSteps(),
+                format(interval.getStepsPerSecond()),
+                format(interval.getEpisodesPerSecond()),
+                format(interval.getEnvironmentTimeShare()),
+                format(interval.getNetworkUpdateTimeShare()),
+                format(interval.getActionSelectionTimeShare()),
+                interval.getEnvironmentStepNanos(50) / 1_000,
+                interval.getEnvironmentStepNanos(99) / 1_000,
+                interval.getNetworkUpdateNanos(50) / 1_000,
+                interval.getNetworkUpdateNanos(99) / 1_000,
+                snapshot.getReplayMemorySize());
+
+        if (csvWriter == null) {
+            return;
+        }
+
+        try {
+            csvWriter.write(String.join(",",
+                    format(snapshot.getElapsedSeconds()),
+                    Long.toString(snapshot.getSteps()),
+                    format(interval.getStepsPerSecond()),
+                    format(interval.getEpisodesPerSecond()),
+                    format(interval.getEnvironmentTimeShare()),
+                    format(interval.getNetworkUpdateTimeShare()),
+                    format(interval.getActionSelectionTimeShare()),
+                    Long.toString(interval.getEnvironmentStepNanos(50) / 1_000),
+                    Long.toString(interval.getEnvironmentStepNanos(99) / 1_000),
+                    Long.toString(interval.getNetworkUpdateNanos(50) / 1_000),
+                    Long.toString(interval.getNetworkUpdateNanos(99) / 1_000),
+                    Integer.toString(snapshot.getReplayMemorySize())));
+            csvWriter.newLine();
+            csvWriter.flush();
+        } catch (final IOException e) {
+            LOG.error(e.getMessage(), e);
+        }
+    }
+
+    private static String format(final double value) {
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+    // endregion
+}
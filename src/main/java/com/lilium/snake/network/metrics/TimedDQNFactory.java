@@ -0,0 +1,114 @@
+package com.lilium.snake.network.metrics;
+
+import org.deeplearning4j.nn.gradient.Gradient;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.rl4j.network.dqn.DQN;
+import org.deeplearning4j.rl4j.network.dqn.DQNFactory;
+import org.deeplearning4j.rl4j.network.dqn.IDQN;
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+/**
+ * Factory wrapping the network built by another factory, so that the learner records the time spent in network
+ * updates and in selecting actions in the {@link TrainingMetrics}.
+ *
+ * @author mirza
+ */
+public class TimedDQNFactory implements DQNFactory {
+    private final DQNFactory factory;
+    private final TrainingMetrics metrics;
+
+    /**
+     * @param factory Factory building the network, it has to build a network based on a {@link MultiLayerNetwork}.
+     * @param metrics Metrics to record in.
+     */
+    public TimedDQNFactory(final DQNFactory factory, final TrainingMetrics metrics) {
+        this.factory = factory;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public IDQN buildDQN(final int[] shapeInputs, final int numOutputs) {
+        final IDQN dqn = factory.buildDQN(shapeInputs, numOutputs);
+        return buildDQN((MultiLayerNetwork) dqn.getNeuralNetworks()[0]);
+    }
+
+    /**
+     * Build a timed network from an existing one, e.g. one loaded from a checkpoint.
+     *
+     * @param network .
+     * @return Returns built network.
+     */
+    public IDQN buildDQN(final MultiLayerNetwork network) {
+        return new TimedDQN(network, metrics);
+    }
+
+    /**
+     * Network recording the duration of its updates and outputs. Copies made by the learner (e.g. the target network)
+     * are timed as well.
+     * <p>
+     * RL4J runs every forward pass through {@link #output(INDArray)}: the greedy action of the policy with a single
+     * observation and the TD targets of an update with a whole batch of them (on this and on the target network). Passes
+     * are told apart by the number of observations, so batches of size 1 are counted as action selection.
+     * <p>
+     * Async workers do not call {@link #fit(INDArray, INDArray)}, they run {@link #outputAll(INDArray)} for the n-step
+     * targets, compute a {@link #gradient(INDArray, INDArray)} on their copy and apply it to the global network with
+     * {@link #applyGradient(Gradient[], int)}. Targets and gradients count as update time, applying the gradient
+     * counts as the update.
+     */
+    private static class TimedDQN extends DQN {
+        private final TrainingMetrics metrics;
+
+        private TimedDQN(final MultiLayerNetwork network, final TrainingMetrics metrics) {
+            super(network);
+            this.metrics = metrics;
+        }
+
+        @Override
+        public void fit(final INDArray input, final INDArray labels) {
+            final long start = System.nanoTime();
+            super.fit(input, labels);
+            metrics.recordNetworkUpdate(System.nanoTime() - start);
+        }
+
+        @Override
+        public INDArray output(final INDArray batch) {
+            final long start = System.nanoTime();
+            final INDArray output = super.output(batch);
+            if (batch.size(0) == 1) {
+                metrics.recordActionSelection(System.nanoTime() - start);
+            } else {
+                metrics.recordTargetComputation(System.nanoTime() - start);
+            }
+
+            return output;
+        }
+
+        @Override
+        public INDArray[] outputAll(final INDArray batch) {
+            final long start = System.nanoTime();
+            final INDArray output = super.output(batch);
+            metrics.recordTargetComputation(System.nanoTime() - start);
+            return new INDArray[]{output};
+        }
+
+        @Override
+        public Gradient[] gradient(final INDArray input, final INDArray labels) {
+            final long start = System.nanoTime();
+            final Gradient[] gradients = super.gradient(input, labels);
+            metrics.recordTargetComputation(System.nanoTime() - start);
+            return gradients;
+        }
+
+        @Override
+        public void applyGradient(final Gradient[] gradients, final int batchSize) {
+            final long start = System.nanoTime();
+            super.applyGradient(gradients, batchSize);
+            metrics.recordNetworkUpdate(System.nanoTime() - start);
+        }
+
+        @Override
+        public TimedDQN clone() {
+            return new TimedDQN(mln.clone(), metrics);
+        }
+    }
+}
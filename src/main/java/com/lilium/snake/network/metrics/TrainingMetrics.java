@@ -0,0 +1,330 @@
+package com.lilium.snake.network.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * Counters and histograms of a training run: environment steps, episodes, time spent in the environment, in network
+ * updates and in action selection, and the size of the replay memory. Recording only increments striped counters, so
+ * it is cheap enough for every step and can be shared by all threads of an async learner.
+ * <p>
+ * Time shares are the recorded time of all threads divided by the wall-clock time, so with N worker threads they add
+ * up to at most N instead of 1.
+ *
+ * @author mirza
+ */
+public class TrainingMetrics implements TrainingMetricsMBean {
+    private static final Logger LOG = LoggerFactory.getLogger(TrainingMetrics.class);
+    private static final String OBJECT_NAME = "com.lilium.snake:type=TrainingMetrics";
+
+    // region Member
+    private final long startNanos = System.nanoTime();
+    private final LongAdder steps = new LongAdder();
+    private final LongAdder episodes = new LongAdder();
+    private final LongAdder environmentNanos = new LongAdder();
+    private final LongAdder networkUpdates = new LongAdder();
+    private final LongAdder networkUpdateNanos = new LongAdder();
+    private final LongAdder actionSelectionNanos = new LongAdder();
+    private final Histogram environmentStepHistogram = new Histogram();
+    private final Histogram networkUpdateHistogram = new Histogram();
+    private volatile IntSupplier replayMemorySize = () -> -1;
+    // endregion
+
+    // region Implementation
+    /**
+     * Record a step of the environment.
+     *
+     * @param nanos Duration of the step.
+     */
+    public void recordEnvironmentStep(final long nanos) {
+        steps.increment();
+        environmentNanos.add(nanos);
+        environmentStepHistogram.record(nanos);
+    }
+
+    /**
+     * Record the start of an episode.
+     */
+    public void recordEpisode() {
+        episodes.increment();
+    }
+
+    /**
+     * Record an update (fit) of the network.
+     *
+     * @param nanos Duration of the update.
+     */
+    public void recordNetworkUpdate(final long nanos) {
+        networkUpdates.increment();
+        networkUpdateNanos.add(nanos);
+        networkUpdateHistogram.record(nanos);
+    }
+
+    /**
+     * Record a forward pass computing the TD targets of an update (or the gradient of an async worker). It is counted
+     * as update time, but not as an update of its own.
+     *
+     * @param nanos Duration of the computation.
+     */
+    public void recordTargetComputation(final long nanos) {
+        networkUpdateNanos.add(nanos);
+    }
+
+    /**
+     * Record a selection of an action (forward pass) by the network.
+     *
+     * @param nanos Duration of the selection.
+     */
+    public void recordActionSelection(final long nanos) {
+        actionSelectionNanos.add(nanos);
+    }
+
+    /**
+     * Set the source of the replay memory size, e.g. the size of the experience handler.
+     *
+     * @param replayMemorySize .
+     */
+    public void setReplayMemorySize(final IntSupplier replayMemorySize) {
+        this.replayMemorySize = replayMemorySize;
+    }
+
+    /**
+     * Used to take a copy of all values, differences of two snapshots give the values of an interval.
+     *
+     * @return .
+     */
+    public Snapshot getSnapshot() {
+        return new Snapshot(
+                System.nanoTime() - startNanos,
+                steps.sum(),
+                episodes.sum(),
+                environmentNanos.sum(),
+                networkUpdates.sum(),
+                networkUpdateNanos.sum(),
+                actionSelectionNanos.sum(),
+                environmentStepHistogram.getCounts(),
+                networkUpdateHistogram.getCounts(),
+                replayMemorySize.getAsInt()
+        );
+    }
+
+    /**
+     * Register the metrics in the platform MBean server, so that they can be watched with e.g. JConsole. Failure to
+     * register is logged and does not stop the training.
+     */
+    public void registerMBean() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(OBJECT_NAME));
+        } catch (final JMException e) {
+            LOG.warn("Failed to register training metrics as '{}'", OBJECT_NAME, e);
+        }
+    }
+
+    /**
+     * Remove the metrics from the platform MBean server.
+     */
+    public void unregisterMBean() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(new ObjectName(OBJECT_NAME));
+        } catch (final JMException e) {
+            LOG.warn("Failed to unregister training metrics '{}'", OBJECT_NAME, e);
+        }
+    }
+    // endregion
+
+    // region MBean
+    @Override
+    public long getSteps() {
+        return steps.sum();
+    }
+
+    @Override
+    public long getEpisodes() {
+        return episodes.sum();
+    }
+
+    @Override
+    public double getStepsPerSecond() {
+        return getSnapshot().getStepsPerSecond();
+    }
+
+    @Override
+    public double getEpisodesPerSecond() {
+        return getSnapshot().getEpisodesPerSecond();
+    }
+
+    @Override
+    public double getEnvironmentTimeShare() {
+        return getSnapshot().getEnvironmentTimeShare();
+    }
+
+    @Override
+    public double getNetworkUpdateTimeShare() {
+        return getSnapshot().getNetworkUpdateTimeShare();
+    }
+
+    @Override
+    public double getActionSelectionTimeShare() {
+        return getSnapshot().getActionSelectionTimeShare();
+    }
+
+    @Override
+    public long getEnvironmentStepP50Micros() {
+        return Histogram.getValueAtPercentile(environmentStepHistogram.getCounts(), 50) / 1_000;
+    }
+
+    @Override
+    public long getEnvironmentStepP99Micros() {
+        return Histogram.getValueAtPercentile(environmentStepHistogram.getCounts(), 99) / 1_000;
+    }
+
+    @Override
+    public long getNetworkUpdateP50Micros() {
+        return Histogram.getValueAtPercentile(networkUpdateHistogram.getCounts(), 50) / 1_000;
+    }
+
+    @Override
+    public long getNetworkUpdateP99Micros() {
+        return Histogram.getValueAtPercentile(networkUpdateHistogram.getCounts(), 99) / 1_000;
+    }
+
+    @Override
+    public int getReplayMemorySize() {
+        return replayMemorySize.getAsInt();
+    }
+    // endregion
+
+    /**
+     * Copy of the metrics at a point in time, or (see {@link #since(Snapshot)}) of an interval.
+     */
+    public static final class Snapshot {
+        private final long elapsedNanos;
+        private final long steps;
+        private final long episodes;
+        private final long environmentNanos;
+        private final long networkUpdates;
+        private final long networkUpdateNanos;
+        private final long actionSelectionNanos;
+        private final long[] environmentStepCounts;
+        private final long[] networkUpdateCounts;
+        private final int replayMemorySize;
+
+        private Snapshot(final long elapsedNanos,
+                         final long steps,
+                         final long episodes,
+                         final long environmentNanos,
+                         final long networkUpdates,
+                         final long networkUpdateNanos,
+                         final long actionSelectionNanos,
+                         final long[] environmentStepCounts,
+                         final long[] networkUpdateCounts,
+                         final int replayMemorySize) {
+            this.elapsedNanos = elapsedNanos;
+            this.steps = steps;
+            this.episodes = episodes;
+            this.environmentNanos = environmentNanos;
+            this.networkUpdates = networkUpdates;
+            this.networkUpdateNanos = networkUpdateNanos;
+            this.actionSelectionNanos = actionSelectionNanos;
+            this.environmentStepCounts = environmentStepCounts;
+            this.networkUpdateCounts = networkUpdateCounts;
+            this.replayMemorySize = replayMemorySize;
+        }
+
+        /**
+         * Get values recorded between the earlier snapshot and this one. Replay memory size is the one of this
+         * snapshot.
+         *
+         * @param earlier .
+         * @return Returns snapshot of the interval.
+         */
+        public Snapshot since(final Snapshot earlier) {
+            return new Snapshot(
+                    elapsedNanos - earlier.elapsedNanos,
+                    steps - earlier.steps,
+                    episodes - earlier.episodes,
+                    environmentNanos - earlier.environmentNanos,
+                    networkUpdates - earlier.networkUpdates,
+                    networkUpdateNanos - earlier.networkUpdateNanos,
+                    actionSelectionNanos - earlier.actionSelectionNanos,
+                    Histogram.difference(environmentStepCounts, earlier.environmentStepCounts),
+                    Histogram.difference(networkUpdateCounts, earlier.networkUpdateCounts),
+                    replayMemorySize
+            );
+        }
+
+        public double getElapsedSeconds() {
+            return elapsedNanos / 1_000_000_000.0;
+        }
+
+        public long getSteps() {
+            return steps;
+        }
+
+        public long getEpisodes() {
+            return episodes;
+        }
+
+        public long getNetworkUpdates() {
+            return networkUpdates;
+        }
+
+        public int getReplayMemorySize() {
+            return replayMemorySize;
+        }
+
+        public double getStepsPerSecond() {
+            return perSecond(steps);
+        }
+
+        public double getEpisodesPerSecond() {
+            return perSecond(episodes);
+        }
+
+        public double getEnvironmentTimeShare() {
+            return share(environmentNanos);
+        }
+
+        public double getNetworkUpdateTimeShare() {
+            return share(networkUpdateNanos);
+        }
+
+        public double getActionSelectionTimeShare() {
+            return share(actionSelectionNanos);
+        }
+
+        /**
+         * Get duration of an environment step at the percentile.
+         *
+         * @param percentile Percentile between 0 and 100.
+         * @return Returns duration in nanoseconds.
+         */
+        public long getEnvironmentStepNanos(final double percentile) {
+            return Histogram.getValueAtPercentile(environmentStepCounts, percentile);
+        }
+
+        /**
+         * Get duration of a network update at the percentile.
+         *
+         * @param percentile Percentile between 0 and 100.
+         * @return Returns duration in nanoseconds.
+         */
+        public long getNetworkUpdateNanos(final double percentile) {
+            return Histogram.getValueAtPercentile(networkUpdateCounts, percentile);
+        }
+
+        private double perSecond(final long count) {
+            return elapsedNanos > 0 ? count * 1_000_000_000.0 / elapsedNanos : 0;
+        }
+
+        private double share(final long nanos) {
+            return elapsedNanos > 0 ? (double) nanos / elapsedNanos : 0;
+        }
+    }
+}
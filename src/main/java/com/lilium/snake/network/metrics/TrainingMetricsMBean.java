@@ -0,0 +1,53 @@
+package com.lilium.snake.network.metrics;
+
+/**
+ * JMX view of {@link TrainingMetrics}. Rates and time shares are averages since the start of the training, durations
+ * are in microseconds. Time shares are summed over all threads, with N threads each share is between 0 and N.
+ *
+ * @author mirza
+ */
+public interface TrainingMetricsMBean {
+    long getSteps();
+
+    long getEpisodes();
+
+    double getStepsPerSecond();
+
+    double getEpisodesPerSecond();
+
+    /**
+     * Get share of the wall-clock time spent in environment steps.
+     *
+     * @return Returns share, summed over all threads.
+     */
+    double getEnvironmentTimeShare();
+
+    /**
+     * Get share of the wall-clock time spent in network updates (fit, or computing and applying gradients).
+     *
+     * @return Returns share, summed over all threads.
+     */
+    double getNetworkUpdateTimeShare();
+
+    /**
+     * Get share of the wall-clock time spent in selecting actions with the network.
+     *
+     * @return Returns share, summed over all threads.
+     */
+    double getActionSelectionTimeShare();
+
+    long getEnvironmentStepP50Micros();
+
+    long getEnvironmentStepP99Micros();
+
+    long getNetworkUpdateP50Micros();
+
+    long getNetworkUpdateP99Micros();
+
+    /**
+     * Get number of transitions in the replay memory.
+     *
+     * @return Returns number of transitions, -1 if the replay memory does not report it.
+     */
+    int getReplayMemorySize();
+}
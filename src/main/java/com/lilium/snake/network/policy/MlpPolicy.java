@@ -0,0 +1,204 @@
+package com.lilium.snake.network.policy;
+
+import com.lilium.snake.network.util.NetworkUtil;
+import org.deeplearning4j.nn.conf.layers.BaseLayer;
+import org.deeplearning4j.nn.conf.layers.DenseLayer;
+import org.deeplearning4j.nn.conf.layers.Layer;
+import org.deeplearning4j.nn.conf.layers.OutputLayer;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.nd4j.linalg.activations.IActivation;
+import org.nd4j.linalg.activations.impl.ActivationIdentity;
+import org.nd4j.linalg.activations.impl.ActivationReLU;
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+/**
+ * Policy running the forward pass of a small dense network in plain Java. Weights are copied out of the
+ * {@link MultiLayerNetwork} into flat float arrays once, after that selecting an action does not cross into native
+ * code and does not allocate. For a single observation this is much faster than {@link NetworkPolicy}, whose time is
+ * mostly spent in the ND4J call overhead rather than in the few multiplications of the network.
+ * <p>
+ * Only dense and output layers with ReLU or identity activation are supported, which is what
+ * {@link NetworkUtil#buildDQNFactory()} builds. Weights of a layer are stored input by input, so the inner loop adds
+ * one input times a contiguous weight row onto all outputs, which the JIT compiles to SIMD instructions.
+ * <p>
+ * Weights are shared by all copies, activations are not, so every thread should use its own {@link #copy()}.
+ *
+ * @author mirza
+ */
+public class MlpPolicy implements Policy {
+    private final int[] layerSizes;
+    // Per layer, weight of input i to output j is at i * number of outputs + j
+    private final float[][] weights;
+    private final float[][] biases;
+    private final boolean[] relu;
+
+    // Activations of every layer, index 0 is the input
+    private final float[][] activations;
+
+    private MlpPolicy(final int[] layerSizes,
+                      final float[][] weights,
+                      final float[][] biases,
+                      final boolean[] relu) {
+        this.layerSizes = layerSizes;
+        this.weights = weights;
+        this.biases = biases;
+        this.relu = relu;
+
+        this.activations = new float[layerSizes.length][];
+        for (int i = 0; i < layerSizes.length; i++) {
+            activations[i] = new float[layerSizes[i]];
+        }
+    }
+
+    /**
+     * Copy the weights of the network.
+     *
+     * @param network Network consisting only of dense layers and an output layer.
+     * @return Returns created policy.
+     */
+    public static MlpPolicy of(final MultiLayerNetwork network) {
+        final int numberOfLayers = network.getnLayers();
+        final int[] layerSizes = new int[numberOfLayers + 1];
+        final float[][] weights = new float[numberOfLayers][];
+        final float[][] biases = new float[numberOfLayers][];
+        final boolean[] relu = new boolean[numberOfLayers];
+
+        for (int i = 0; i < numberOfLayers; i++) {
+            final Layer layer = network.getLayerWiseConfigurations().getConf(i).getLayer();
+            if (!(layer instanceof DenseLayer) && !(layer instanceof OutputLayer)) {
+                throw new IllegalArgumentException("Layer " + i + " is not a dense layer but " + layer);
+            }
+
+            final IActivation activation = ((BaseLayer) layer).getActivationFn();
+            if (!(activation instanceof ActivationReLU) && !(activation instanceof ActivationIdentity)) {
+                throw new IllegalArgumentException("Activation " + activation + " of layer " + i + " is not supported");
+            }
+            relu[i] = activation instanceof ActivationReLU;
+
+            // Weights are a number of inputs x number of outputs matrix, copied row by row
+            final INDArray layerWeights = network.getLayer(i).getParam("W");
+            final int numberOfInputs = (int) layerWeights.size(0);
+            final int numberOfOutputs = (int) layerWeights.size(1);
+            weights[i] = new float[numberOfInputs * numberOfOutputs];
+            final float[][] rows = layerWeights.toFloatMatrix();
+            for (int j = 0; j < numberOfInputs; j++) {
+                System.arraycopy(rows[j], 0, weights[i], j * numberOfOutputs, numberOfOutputs);
+            }
+            biases[i] = network.getLayer(i).getParam("b").toFloatVector();
+            flushNegligibleValues(weights[i]);
+            flushNegligibleValues(biases[i]);
+
+            layerSizes[i] = numberOfInputs;
+            layerSizes[i + 1] = numberOfOutputs;
+        }
+
+        return new MlpPolicy(layerSizes, weights, biases, relu);
+    }
+
+    /**
+     * Load a saved network and copy its weights.
+     *
+     * @param networkName Path of the network zip.
+     * @return Returns created policy.
+     */
+    public static MlpPolicy load(final String networkName) {
+        final MultiLayerNetwork network = NetworkUtil.loadNetwork(networkName);
+        if (network == null) {
+            throw new IllegalArgumentException("Could not load network " + networkName);
+        }
+
+        return of(network);
+    }
+
+    /**
+     * Create a policy sharing the weights of this one, for use by another thread.
+     *
+     * @return .
+     */
+    public MlpPolicy copy() {
+        return new MlpPolicy(layerSizes, weights, biases, relu);
+    }
+
+    @Override
+    public int selectAction(final double[] observation) {
+        final float[] output = output(observation);
+
+        int maxValueIndex = 0;
+        for (int i = 1; i < output.length; i++) {
+            if (output[i] > output[maxValueIndex]) {
+                maxValueIndex = i;
+            }
+        }
+
+        return maxValueIndex;
+    }
+
+    /**
+     * Run the forward pass.
+     *
+     * @param observation Input of the network.
+     * @return Returns output of the network. The array is reused by the next call.
+     */
+    public float[] output(final double[] observation) {
+        final float[] input = activations[0];
+        for (int i = 0; i < input.length; i++) {
+            input[i] = (float) observation[i];
+        }
+
+        for (int layer = 0; layer < weights.length; layer++) {
+            forward(layer, activations[layer], activations[layer + 1]);
+        }
+
+        return activations[weights.length];
+    }
+
+    public int getNumberOfInputs() {
+        return layerSizes[0];
+    }
+
+    public int getNumberOfOutputs() {
+        return layerSizes[layerSizes.length - 1];
+    }
+
+    private static void flushNegligibleValues(final float[] values) {
+        // Trained networks contain weights which have decayed to around the smallest normal float. Products with them
+        // are subnormal, which takes the slow path of the CPU and made a decision over 10 times slower. Anything that
+        // far below the largest value of the layer is below float precision of every sum it is added to.
+        float max = 0;
+        for (final float value : values) {
+            max = Math.max(max, Math.abs(value));
+        }
+
+        final float threshold = Math.max(max * 0x1p-48f, Float.MIN_NORMAL);
+        for (int i = 0; i < values.length; i++) {
+            if (Math.abs(values[i]) < threshold) {
+                values[i] = 0;
+            }
+        }
+    }
+
+    private void forward(final int layer, final float[] input, final float[] output) {
+        final float[] layerWeights = weights[layer];
+        final int numberOfOutputs = output.length;
+        System.arraycopy(biases[layer], 0, output, 0, numberOfOutputs);
+
+        for (int i = 0; i < input.length; i++) {
+            // Observations are mostly -1/0/1 and a ReLU zeroes about half of the hidden units, zeros add nothing
+            final float value = input[i];
+            if (value == 0) {
+                continue;
+            }
+
+            final int offset = i * numberOfOutputs;
+            for (int j = 0; j < numberOfOutputs; j++) {
+                output[j] += value * layerWeights[offset + j];
+            }
+        }
+
+        if (relu[layer]) {
+            for (int j = 0; j < numberOfOutputs; j++) {
+                output[j] = Math.max(output[j], 0);
+            }
+        }
+    }
+}
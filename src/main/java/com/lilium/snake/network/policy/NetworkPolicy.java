@@ -0,0 +1,50 @@
+package com.lilium.snake.network.policy;
+
+import com.lilium.snake.events.ForwardPassEvent;
+import com.lilium.snake.network.util.GameStateUtil;
+import com.lilium.snake.network.util.NetworkUtil;
+import jdk.jfr.EventType;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+/**
+ * Policy selecting the action with the highest Q-value predicted by the network. The input matrix is reused between
+ * calls, so an instance must not be shared between threads.
+ *
+ * @author mirza
+ */
+public class NetworkPolicy implements Policy {
+    private static final EventType FORWARD_PASS_EVENT_TYPE = EventType.getEventType(ForwardPassEvent.class);
+
+    private final MultiLayerNetwork network;
+    private final INDArray input = Nd4j.create(NetworkUtil.DATA_TYPE, 1, NetworkUtil.NUMBER_OF_INPUTS);
+
+    public NetworkPolicy(final MultiLayerNetwork network) {
+        this.network = network;
+    }
+
+    @Override
+    public int selectAction(final double[] observation) {
+        for (int i = 0; i < observation.length; i++) {
+            input.putScalar(0, i, observation[i]);
+        }
+
+        final ForwardPassEvent event = FORWARD_PASS_EVENT_TYPE.isEnabled() ? new ForwardPassEvent() : null;
+        if (event != null) {
+            event.begin();
+        }
+
+        final INDArray output = network.output(input, false);
+
+        if (event != null) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.batchSize = 1;
+                event.commit();
+            }
+        }
+
+        return GameStateUtil.getMaxValueIndex(output.data().asDouble());
+    }
+}
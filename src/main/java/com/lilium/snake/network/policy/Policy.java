@@ -0,0 +1,18 @@
+package com.lilium.snake.network.policy;
+
+/**
+ * Policy selecting the action to take for an observation. Implementations are not expected to be thread-safe, every
+ * thread should use its own instance.
+ *
+ * @author mirza
+ */
+@FunctionalInterface
+public interface Policy {
+    /**
+     * Select the action to take.
+     *
+     * @param observation Current game state observation.
+     * @return Returns index of the action to take.
+     */
+    int selectAction(double[] observation);
+}
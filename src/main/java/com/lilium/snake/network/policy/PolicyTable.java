@@ -0,0 +1,185 @@
+package com.lilium.snake.network.policy;
+
+import com.lilium.snake.network.GameObservationSpace;
+import com.lilium.snake.network.util.GameStateUtil;
+import com.lilium.snake.network.util.NetworkUtil;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Policy compiled into a lookup table. When the {@link GameObservationSpace} is finite (e.g. 3^4 = 81 observations of
+ * the basic feature set) the network is run once over every observation and only the best action of each is kept,
+ * selecting an action is then a single array lookup. Q-values are kept next to the actions for debugging.
+ * <p>
+ * Table is immutable, so unlike other policies one instance can be shared by all threads.
+ * <p>
+ * File format: magic, version, number of inputs, number of observations, number of actions, one action byte per
+ * observation and then the Q-values of every observation as floats.
+ *
+ * @author mirza
+ */
+public class PolicyTable implements Policy {
+    /**
+     * Extension of compiled policy files.
+     */
+    public static final String FILE_EXTENSION = ".table";
+
+    private static final int MAGIC = 0x534E4B54;
+    private static final int VERSION = 1;
+
+    private final GameObservationSpace observationSpace = new GameObservationSpace();
+    private final byte[] actions;
+    // Q-values of observation i are at i * number of actions
+    private final float[] qValues;
+    private final int numberOfActions;
+
+    /**
+     * @param actions Action of every observation, indexed by {@link GameObservationSpace#getIndex(double[])}.
+     * @param qValues Q-values of every observation, number of actions values per observation.
+     */
+    public PolicyTable(final byte[] actions, final float[] qValues) {
+        if (actions.length != observationSpace.getNumberOfObservations() || qValues.length % actions.length != 0) {
+            throw new IllegalArgumentException("Table of " + actions.length + " actions and " + qValues.length
+                    + " Q-values does not match " + observationSpace.getNumberOfObservations() + " observations");
+        }
+
+        this.actions = actions;
+        this.qValues = qValues;
+        this.numberOfActions = qValues.length / actions.length;
+    }
+
+    /**
+     * Run the network over every observation of the (finite) observation space in a single batch and keep the best
+     * action of each.
+     *
+     * @param network Network to compile.
+     * @return Returns compiled table.
+     */
+    public static PolicyTable compile(final MultiLayerNetwork network) {
+        final GameObservationSpace observationSpace = new GameObservationSpace();
+        final int numberOfObservations = observationSpace.getNumberOfObservations();
+
+        final INDArray inputs = Nd4j.create(NetworkUtil.DATA_TYPE, numberOfObservations, NetworkUtil.NUMBER_OF_INPUTS);
+        final double[] observation = new double[NetworkUtil.NUMBER_OF_INPUTS];
+        for (int i = 0; i < numberOfObservations; i++) {
+            observationSpace.getObservation(i, observation);
+            for (int j = 0; j < observation.length; j++) {
+                inputs.putScalar(i, j, observation[j]);
+            }
+        }
+
+        final INDArray output = network.output(inputs, false);
+        final int numberOfActions = (int) output.size(1);
+        final byte[] actions = new byte[numberOfObservations];
+        final float[] qValues = new float[numberOfObservations * numberOfActions];
+        final double[] actionValues = new double[numberOfActions];
+        for (int i = 0; i < numberOfObservations; i++) {
+            for (int j = 0; j < numberOfActions; j++) {
+                actionValues[j] = output.getDouble(i, j);
+                qValues[i * numberOfActions + j] = (float) actionValues[j];
+            }
+
+            actions[i] = (byte) GameStateUtil.getMaxValueIndex(actionValues);
+        }
+
+        return new PolicyTable(actions, qValues);
+    }
+
+    /**
+     * Read a table written by {@link #save(Path)}.
+     *
+     * @param file .
+     * @return Returns read table.
+     * @throws IOException Thrown if the file can not be read or was compiled for other observations.
+     */
+    public static PolicyTable load(final Path file) throws IOException {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+                throw new IOException(file + " is not a policy table");
+            }
+
+            final int numberOfInputs = input.readInt();
+            if (numberOfInputs != NetworkUtil.NUMBER_OF_INPUTS) {
+                throw new IOException(file + " was compiled for " + numberOfInputs + " inputs but the "
+                        + NetworkUtil.FEATURE_SET + " features have " + NetworkUtil.NUMBER_OF_INPUTS);
+            }
+
+            final byte[] actions = new byte[input.readInt()];
+            final float[] qValues = new float[actions.length * input.readInt()];
+            input.readFully(actions);
+            for (int i = 0; i < qValues.length; i++) {
+                qValues[i] = input.readFloat();
+            }
+
+            return new PolicyTable(actions, qValues);
+        }
+    }
+
+    /**
+     * Write the table, first into a temporary file which is then moved over the target.
+     *
+     * @param file .
+     * @throws IOException Thrown if the file can not be written.
+     */
+    public void save(final Path file) throws IOException {
+        final Path temporaryFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream output = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temporaryFile)))) {
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeInt(NetworkUtil.NUMBER_OF_INPUTS);
+            output.writeInt(actions.length);
+            output.writeInt(numberOfActions);
+            output.write(actions);
+            for (final float qValue : qValues) {
+                output.writeFloat(qValue);
+            }
+        }
+
+        Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public int selectAction(final double[] observation) {
+        return actions[observationSpace.getIndex(observation)];
+    }
+
+    /**
+     * Get the action of an observation by its index.
+     *
+     * @param index Index of the observation.
+     * @return .
+     */
+    public int getAction(final int index) {
+        return actions[index];
+    }
+
+    /**
+     * Get the Q-value the action had when the table was compiled.
+     *
+     * @param index Index of the observation.
+     * @param action Index of the action.
+     * @return .
+     */
+    public float getQValue(final int index, final int action) {
+        return qValues[index * numberOfActions + action];
+    }
+
+    public int getNumberOfObservations() {
+        return actions.length;
+    }
+
+    public int getNumberOfActions() {
+        return numberOfActions;
+    }
+}
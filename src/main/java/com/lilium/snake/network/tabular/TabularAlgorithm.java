@@ -0,0 +1,17 @@
+package com.lilium.snake.network.tabular;
+
+/**
+ * Update rule of the {@link TabularTrainer}.
+ *
+ * @author mirza
+ */
+public enum TabularAlgorithm {
+    /**
+     * Off-policy, the target uses the best action of the next observation.
+     */
+    Q_LEARNING,
+    /**
+     * On-policy, the target uses the action which is actually taken next (including exploration).
+     */
+    SARSA
+}
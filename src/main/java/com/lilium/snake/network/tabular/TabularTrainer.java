@@ -0,0 +1,202 @@
+package com.lilium.snake.network.tabular;
+
+import com.lilium.snake.game.GameEngine;
+import com.lilium.snake.network.Action;
+import com.lilium.snake.network.GameObservationSpace;
+import com.lilium.snake.network.policy.PolicyTable;
+import com.lilium.snake.network.util.NetworkUtil;
+import org.deeplearning4j.rl4j.learning.configuration.QLearningConfiguration;
+
+import java.util.SplittableRandom;
+
+/**
+ * Tabular Q-learning (or SARSA) over a finite {@link GameObservationSpace}, a baseline for the DQN which needs no
+ * network at all. Every observation has its own row of Q-values, so training is a few array accesses per step and the
+ * result is the same {@link PolicyTable} the compiled networks are deployed as.
+ * <p>
+ * Games, rewards and the episode length are the same as while training the DQN: actions are taken with
+ * {@link GameEngine#step(Action)} and the seed, discount, reward factor, maximum epoch step and epsilon schedule are
+ * read from the same {@link QLearningConfiguration}, so both can be compared by the evaluator.
+ *
+ * @author mirza
+ */
+public class TabularTrainer {
+    // region Member
+    private final GameObservationSpace observationSpace = new GameObservationSpace();
+    private final TabularAlgorithm algorithm;
+    private final double learningRate;
+    private final double gamma;
+    private final double rewardFactor;
+    private final int maxEpochStep;
+    private final double minEpsilon;
+    private final int epsilonNbStep;
+
+    private final GameEngine game;
+    private final SplittableRandom random;
+    private final double[] observation = new double[NetworkUtil.NUMBER_OF_INPUTS];
+    private final int numberOfActions = Action.values().length;
+    // Q-values of observation i are at i * number of actions
+    private final float[] qValues;
+
+    private long steps;
+    private long episodes;
+    private long episodesScore;
+    // endregion
+
+    // region Setup
+    /**
+     * @param config Configuration of the DQN training whose settings are used.
+     * @param algorithm Update rule.
+     * @param learningRate Step size of every update.
+     */
+    public TabularTrainer(final QLearningConfiguration config,
+                          final TabularAlgorithm algorithm,
+                          final double learningRate) {
+        if (!observationSpace.isFinite()) {
+            throw new IllegalStateException("Observations of the '" + NetworkUtil.FEATURE_SET
+                    + "' features are not finite, they do not fit into a table");
+        }
+
+        this.algorithm = algorithm;
+        this.learningRate = learningRate;
+        this.gamma = config.getGamma();
+        this.rewardFactor = config.getRewardFactor();
+        this.maxEpochStep = config.getMaxEpochStep();
+        this.minEpsilon = config.getMinEpsilon();
+        this.epsilonNbStep = config.getEpsilonNbStep();
+
+        this.random = new SplittableRandom(config.getSeed());
+        this.game = new GameEngine(random.split());
+        this.qValues = new float[observationSpace.getNumberOfObservations() * numberOfActions];
+    }
+    // endregion
+
+    // region Implementation
+    /**
+     * Train for the number of steps, can be called again to continue training. Last episode is cut short when the
+     * steps run out.
+     *
+     * @param numberOfSteps Number of steps to take.
+     */
+    public void train(final long numberOfSteps) {
+        final long lastStep = steps + numberOfSteps;
+
+        game.reset();
+        int epochStep = 0;
+        int state = observe();
+        int action = selectAction(state);
+
+        while (steps < lastStep) {
+            final double reward = game.step(Action.getActionByIndex(action)) * rewardFactor;
+            steps++;
+            epochStep++;
+
+            final int index = state * numberOfActions + action;
+            if (!game.isOngoing()) {
+                // Nothing follows the end of the game, so there is nothing to bootstrap from
+                qValues[index] += (float) (learningRate * (reward - qValues[index]));
+
+                recordEpisode();
+                game.reset();
+                epochStep = 0;
+                state = observe();
+                action = selectAction(state);
+                continue;
+            }
+
+            final int nextState = observe();
+            final int nextAction = selectAction(nextState);
+            final double nextValue = algorithm == TabularAlgorithm.SARSA
+                    ? qValues[nextState * numberOfActions + nextAction]
+                    : qValues[nextState * numberOfActions + getBestAction(nextState)];
+            qValues[index] += (float) (learningRate * (reward + gamma * nextValue - qValues[index]));
+
+            if (epochStep >= maxEpochStep) {
+                // Epoch is over but the game is not, the cut is not a real end so the value above is bootstrapped
+                recordEpisode();
+                game.reset();
+                epochStep = 0;
+                state = observe();
+                action = selectAction(state);
+            } else {
+                state = nextState;
+                action = nextAction;
+            }
+        }
+    }
+
+    /**
+     * Build a table with the best action of every observation, observations never seen during training select the
+     * first action.
+     *
+     * @return .
+     */
+    public PolicyTable toPolicyTable() {
+        final byte[] actions = new byte[observationSpace.getNumberOfObservations()];
+        for (int i = 0; i < actions.length; i++) {
+            actions[i] = (byte) getBestAction(i);
+        }
+
+        return new PolicyTable(actions, qValues.clone());
+    }
+
+    /**
+     * Get current exploration rate, annealed linearly from 1 to the minimum epsilon of the configuration.
+     *
+     * @return .
+     */
+    public double getEpsilon() {
+        return Math.max(minEpsilon, 1 - (double) steps / epsilonNbStep);
+    }
+
+    public long getSteps() {
+        return steps;
+    }
+
+    public long getEpisodes() {
+        return episodes;
+    }
+
+    /**
+     * Get average score of all finished training episodes, which includes the exploring moves.
+     *
+     * @return Returns average score, 0 if no episode has finished yet.
+     */
+    public double getAverageScore() {
+        return episodes == 0 ? 0 : (double) episodesScore / episodes;
+    }
+    // endregion
+
+    // region Helper
+    private int observe() {
+        game.buildStateObservation(observation);
+        return observationSpace.getIndex(observation);
+    }
+
+    private int selectAction(final int state) {
+        if (random.nextDouble() < getEpsilon()) {
+            return random.nextInt(numberOfActions);
+        }
+
+        return getBestAction(state);
+    }
+
+    private int getBestAction(final int state) {
+        // Same tie-breaking as the networks, first of the equal values wins
+        final int offset = state * numberOfActions;
+        int bestAction = 0;
+        for (int i = 1; i < numberOfActions; i++) {
+            if (qValues[offset + i] > qValues[offset + bestAction]) {
+                bestAction = i;
+            }
+        }
+
+        return bestAction;
+    }
+
+    private void recordEpisode() {
+        episodes++;
+        episodesScore += game.getScore();
+    }
+    // endregion
+}
@@ -0,0 +1,118 @@
+package com.lilium.snake.network.util;
+
+import com.lilium.snake.game.helper.OccupancyGrid;
+import com.lilium.snake.game.helper.Ray;
+import com.lilium.snake.game.helper.SnakeBody;
+import com.lilium.snake.game.util.PositionUtil;
+import com.lilium.snake.network.FeatureSet;
+
+/**
+ * Util class containing methods to build the features of {@link FeatureSet#EXTENDED}. Every feature takes constant
+ * time: distances along the rays come from the line masks of the {@link OccupancyGrid}, which are updated with the
+ * head and tail of every move, and everything else only looks at the head, tail and food.
+ *
+ * @author mirza
+ */
+public final class FeatureUtil {
+    private static final Ray[] RAYS = Ray.values();
+
+    private FeatureUtil() {}
+
+    /**
+     * Write the features that {@link FeatureSet#EXTENDED} adds to the basic features. Distances and length are
+     * relative to the size of the board, so the features of every board size are in the same range.
+     *
+     * @param headCell Current cell of the snakes head.
+     * @param foodCell Current food cell.
+     * @param occupancyGrid Occupancy grid of the snake body.
+     * @param snakeBody Snake body, used to find the tail direction.
+     * @param snakeLength Current snake length.
+     * @param features Array into which the features are written.
+     * @param offset Index of the array at which the first feature is written.
+     */
+    public static void writeExtendedFeatures(final int headCell,
+                                             final int foodCell,
+                                             final OccupancyGrid occupancyGrid,
+                                             final SnakeBody snakeBody,
+                                             final int snakeLength,
+                                             final double[] features,
+                                             final int offset) {
+        final int numberOfCells = occupancyGrid.getNumberOfCells();
+        final int maxDelta = numberOfCells - 1;
+        int index = offset;
+
+        for (final Ray ray : RAYS) {
+            features[index++] = getInverseDistance(getDistanceToWall(headCell, ray, numberOfCells));
+            features[index++] = getInverseDistance(occupancyGrid.getDistanceToOccupied(headCell, ray));
+        }
+
+        features[index++] = (double) (PositionUtil.getCellX(foodCell) - PositionUtil.getCellX(headCell)) / maxDelta;
+        features[index++] = (double) (PositionUtil.getCellY(foodCell) - PositionUtil.getCellY(headCell)) / maxDelta;
+        features[index++] = (double) snakeLength / ((double) numberOfCells * numberOfCells);
+
+        writeTailDirection(snakeBody, features, index);
+    }
+
+    /**
+     * Get the number of steps from the cell along the ray until the first cell outside the game bounds.
+     *
+     * @param cell Cell from which the ray starts.
+     * @param ray Direction of the ray.
+     * @param numberOfCells Number of cells in one row or column of the board.
+     * @return Returns number of steps, 0 if the cell itself is outside the game bounds.
+     */
+    public static int getDistanceToWall(final int cell, final Ray ray, final int numberOfCells) {
+        if (PositionUtil.isOutsideTheGameBounds(cell, numberOfCells)) {
+            return 0;
+        }
+
+        final int distanceX = getDistanceToWall(PositionUtil.getCellX(cell), ray.getDx(), numberOfCells);
+        final int distanceY = getDistanceToWall(PositionUtil.getCellY(cell), ray.getDy(), numberOfCells);
+
+        return Math.min(distanceX, distanceY);
+    }
+
+    private static int getDistanceToWall(final int coordinate, final int delta, final int numberOfCells) {
+        if (delta > 0) {
+            return numberOfCells - coordinate;
+        }
+
+        if (delta < 0) {
+            return coordinate + 1;
+        }
+
+        return Integer.MAX_VALUE;
+    }
+
+    private static double getInverseDistance(final int distance) {
+        return distance == 0 ? 0 : 1.0 / distance;
+    }
+
+    private static void writeTailDirection(final SnakeBody snakeBody, final double[] features, final int offset) {
+        // UP, RIGHT, DOWN, LEFT, all zero if the snake has no tail yet
+        features[offset] = 0;
+        features[offset + 1] = 0;
+        features[offset + 2] = 0;
+        features[offset + 3] = 0;
+
+        if (snakeBody.size() < 2) {
+            return;
+        }
+
+        // Direction in which the tail points, from the part before it towards the tail end
+        final int tail = snakeBody.getLast();
+        final int beforeTail = snakeBody.get(snakeBody.size() - 2);
+        final int deltaX = PositionUtil.getCellX(tail) - PositionUtil.getCellX(beforeTail);
+        final int deltaY = PositionUtil.getCellY(tail) - PositionUtil.getCellY(beforeTail);
+
+        if (deltaY < 0) {
+            features[offset] = 1;
+        } else if (deltaX > 0) {
+            features[offset + 1] = 1;
+        } else if (deltaY > 0) {
+            features[offset + 2] = 1;
+        } else if (deltaX < 0) {
+            features[offset + 3] = 1;
+        }
+    }
+}
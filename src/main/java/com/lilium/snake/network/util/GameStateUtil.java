@@ -1,11 +1,10 @@
 package com.lilium.snake.network.util;
 
 import com.lilium.snake.game.helper.Direction;
+import com.lilium.snake.game.helper.OccupancyGrid;
 import com.lilium.snake.game.helper.Position;
 import com.lilium.snake.game.util.PositionUtil;
 
-import java.util.Arrays;
-
 /**
  * Class containing some helper methods for {@link com.lilium.snake.network.GameState}.
  *
@@ -28,16 +27,41 @@ public final class GameStateUtil {
     public static double getStateForDirection(final Position[] snakePosition,
                                               final Position foodPosition,
                                               final Direction directionToCheck) {
-        // Position of snakes head
-        final Position head = snakePosition[0];
-        final Position nextPosition = PositionUtil.getNextPosition(head, directionToCheck);
+        return getStateForDirection(
+                PositionUtil.toCell(snakePosition[0]),
+                OccupancyGrid.of(snakePosition),
+                PositionUtil.toCell(foodPosition),
+                directionToCheck
+        );
+    }
+
+    /**
+     * Calculate the state for given direction, same as {@link #getStateForDirection(Position[], Position, Direction)}
+     * but works on cells and checks the body with a constant-time lookup in the occupancy grid of the snake.
+     *
+     * @param headCell Current cell of the snakes head.
+     * @param occupancyGrid Occupancy grid of the snake body.
+     * @param foodCell Current food cell.
+     * @param directionToCheck Direction in which we are checking.
+     * @return Returns calculated state value.
+     */
+    public static double getStateForDirection(final int headCell,
+                                              final OccupancyGrid occupancyGrid,
+                                              final int foodCell,
+                                              final Direction directionToCheck) {
+        final int nextCell = PositionUtil.getNextCell(headCell, directionToCheck);
 
-        if (isHeadUnableToMoveToNextPosition(nextPosition, snakePosition)) {
+        if (isHeadUnableToMoveToNextCell(nextCell, occupancyGrid)) {
             return -1.0;
         }
 
+        final int headX = PositionUtil.getCellX(headCell);
+        final int headY = PositionUtil.getCellY(headCell);
+        final int foodX = PositionUtil.getCellX(foodCell);
+        final int foodY = PositionUtil.getCellY(foodCell);
+
         if (directionToCheck == Direction.UP) {
-            if (head.getY() > foodPosition.getY()) {
+            if (headY > foodY) {
                 return 1.0;
             }
 
@@ -45,7 +69,7 @@ public final class GameStateUtil {
         }
 
         if (directionToCheck == Direction.RIGHT) {
-            if (head.getX() < foodPosition.getX()) {
+            if (headX < foodX) {
                 return 1.0;
             }
 
@@ -53,7 +77,7 @@ public final class GameStateUtil {
         }
 
         if (directionToCheck == Direction.DOWN) {
-            if (head.getY() < foodPosition.getY()) {
+            if (headY < foodY) {
                 return 1.0;
             }
 
@@ -61,7 +85,7 @@ public final class GameStateUtil {
         }
 
         if (directionToCheck == Direction.LEFT) {
-            if (head.getX() < foodPosition.getX()) {
+            if (headX > foodX) {
                 return 1.0;
             }
 
@@ -87,9 +111,9 @@ public final class GameStateUtil {
         return maxAt;
     }
 
-    private static boolean isHeadUnableToMoveToNextPosition(final Position nextPosition,
-                                                            final Position[] snakePosition) {
-        // Snake cant move to that position if it is outside the game bounds or if its body is in the way
-        return nextPosition.isOutsideTheGameBounds() || Arrays.asList(snakePosition).contains(nextPosition);
+    private static boolean isHeadUnableToMoveToNextCell(final int nextCell,
+                                                        final OccupancyGrid occupancyGrid) {
+        // Snake cant move to that cell if it is outside the game bounds or if its body is in the way
+        return occupancyGrid.isOutsideTheGameBounds(nextCell) || occupancyGrid.isOccupied(nextCell);
     }
 }
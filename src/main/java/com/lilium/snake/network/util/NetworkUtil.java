@@ -1,8 +1,13 @@
 package com.lilium.snake.network.util;
+
+import com.lilium.snake.network.DenseDQNFactory;
+import com.lilium.snake.network.FeatureSet;
 import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.rl4j.learning.configuration.AsyncQLearningConfiguration;
 import org.deeplearning4j.rl4j.learning.configuration.QLearningConfiguration;
 import org.deeplearning4j.rl4j.network.configuration.DQNDenseNetworkConfiguration;
-import org.deeplearning4j.rl4j.network.dqn.DQNFactoryStdDense;
+import org.deeplearning4j.rl4j.network.dqn.DQNFactory;
+import org.nd4j.linalg.api.buffer.DataType;
 import org.nd4j.linalg.learning.config.RmsProp;
 
 import java.io.File;
@@ -14,10 +19,23 @@ import java.io.IOException;
  * @author mirza
  */
 public final class NetworkUtil {
+    /**
+     * Features observed by the network, selected with the {@code snake.featureSet} system property (BASIC by default).
+     */
+    public static final FeatureSet FEATURE_SET = FeatureSet.valueOf(
+            System.getProperty("snake.featureSet", FeatureSet.BASIC.name())
+    );
     /**
      * Number of neural network inputs.
      */
-    public static final int NUMBER_OF_INPUTS = 4;
+    public static final int NUMBER_OF_INPUTS = FEATURE_SET.getNumberOfInputs();
+    /**
+     * Data type of the network, the observations and the sampled replay batches, selected with the
+     * {@code snake.dataType} system property (FLOAT by default, DOUBLE or HALF).
+     */
+    public static final DataType DATA_TYPE = DataType.valueOf(
+            System.getProperty("snake.dataType", DataType.FLOAT.name())
+    );
     /**
      * Lowest value of the observation (e.g. player will die -1, nothing will happen 0, will move closer to the food 1)
      */
@@ -26,12 +44,16 @@ public final class NetworkUtil {
      * Highest value of the observation (e.g. player will die -1, nothing will happen 0, will move closer to the food 1)
      */
     public static final double HIGH_VALUE = 1;
+    /**
+     * Seed of the run. Learner and all games derive their random generators from it, so runs can be reproduced.
+     */
+    public static final long SEED = 123L;
 
     private NetworkUtil() {}
 
     public static QLearningConfiguration buildConfig() {
         return QLearningConfiguration.builder()
-                .seed(123L)
+                .seed(SEED)
                 .maxEpochStep(200)
                 .maxStep(15000)
                 .expRepMaxSize(150000)
@@ -47,7 +69,40 @@ public final class NetworkUtil {
                 .build();
     }
 
-    public static DQNFactoryStdDense buildDQNFactory() {
+    /**
+     * Build configuration for the async n-step Q-learning, every thread trains on its own game.
+     *
+     * @param numberOfThreads Number of threads (and games) used for training.
+     * @return Returns built configuration.
+     */
+    public static AsyncQLearningConfiguration buildAsyncConfig(final int numberOfThreads) {
+        return AsyncQLearningConfiguration.builder()
+                .seed(SEED)
+                .maxEpochStep(200)
+                .maxStep(500000)
+                .numThreads(numberOfThreads)
+                .nStep(5)
+                .targetDqnUpdateFreq(500)
+                .updateStart(10)
+                .rewardFactor(0.01)
+                .gamma(0.99)
+                .errorClamp(1.0)
+                .minEpsilon(0.1f)
+                .epsilonNbStep(1000)
+                .build();
+    }
+
+    public static DQNFactory buildDQNFactory() {
+        return buildDQNFactory(DATA_TYPE);
+    }
+
+    /**
+     * Build factory of the network with the forwarded data type instead of {@link #DATA_TYPE}, e.g. to compare them.
+     *
+     * @param dataType Data type of the network.
+     * @return Returns built factory.
+     */
+    public static DQNFactory buildDQNFactory(final DataType dataType) {
         final DQNDenseNetworkConfiguration build = DQNDenseNetworkConfiguration.builder()
                 .l2(0.001)
                 .updater(new RmsProp(0.000025))
@@ -55,7 +110,7 @@ public final class NetworkUtil {
                 .numLayers(2)
                 .build();
 
-        return new DQNFactoryStdDense(build);
+        return new DenseDQNFactory(build, dataType, SEED);
     }
 
     public static MultiLayerNetwork loadNetwork(final String networkName) {
@@ -0,0 +1,93 @@
+import com.lilium.snake.game.ArenaEngine;
+import com.lilium.snake.game.helper.Direction;
+import com.lilium.snake.game.helper.GameOverReason;
+import com.lilium.snake.game.util.PositionUtil;
+import com.lilium.snake.network.Action;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ArenaEngineTest {
+    private static final int[] RIGHT_AND_LEFT = {Action.MOVE_RIGHT.ordinal(), Action.MOVE_LEFT.ordinal()};
+    private static final int[] RIGHT_AND_DOWN = {Action.MOVE_RIGHT.ordinal(), Action.MOVE_DOWN.ordinal()};
+
+    private final double[] rewards = new double[2];
+    private final boolean[] done = new boolean[2];
+
+    @Test
+    public void testHeadToHeadKillsBothSnakes() {
+        final ArenaEngine arena = newArena();
+        arena.setSnake(0, cells(4, 5, 3, 5, 2, 5), Direction.RIGHT);
+        arena.setSnake(1, cells(6, 5, 7, 5, 8, 5), Direction.LEFT);
+
+        arena.step(RIGHT_AND_LEFT, rewards, done);
+
+        assertThat(done).containsExactly(true, true);
+        assertThat(arena.getGameOverReason(0)).isEqualTo(GameOverReason.HEAD);
+        assertThat(arena.getGameOverReason(1)).isEqualTo(GameOverReason.HEAD);
+        assertThat(rewards).containsExactly(-100, -100);
+
+        // Both bodies are removed from the board
+        for (int x = 0; x < arena.getNumberOfCells(); x++) {
+            assertThat(arena.isOccupied(PositionUtil.toCell(x, 5))).isFalse();
+        }
+
+        assertThat(arena.respawn(0)).isTrue();
+        assertThat(arena.isAlive(0)).isTrue();
+        assertThat(arena.getSnakeBody(0).size()).isEqualTo(1);
+    }
+
+    @Test
+    public void testHeadOnBodyKillsOnlyTheMovingSnake() {
+        final ArenaEngine arena = newArena();
+
+        // Head may follow a tail onto the cell it leaves in the same tick
+        arena.setSnake(0, cells(4, 5, 3, 5, 2, 5), Direction.RIGHT);
+        arena.setSnake(1, cells(5, 7, 5, 6, 5, 5), Direction.DOWN);
+        arena.step(RIGHT_AND_DOWN, rewards, done);
+        assertThat(done).containsExactly(false, false);
+        assertThat(arena.getHeadCell(0)).isEqualTo(PositionUtil.toCell(5, 5));
+
+        arena.setSnake(0, cells(4, 6, 3, 6, 2, 6), Direction.RIGHT);
+        arena.setSnake(1, cells(5, 7, 5, 6, 5, 5), Direction.DOWN);
+        arena.step(RIGHT_AND_DOWN, rewards, done);
+        assertThat(done).containsExactly(true, false);
+        assertThat(arena.getGameOverReason(0)).isEqualTo(GameOverReason.BODY);
+        assertThat(arena.isAlive(1)).isTrue();
+        assertThat(arena.isOccupied(PositionUtil.toCell(3, 6))).isFalse();
+        assertThat(arena.isOccupied(PositionUtil.toCell(5, 6))).isTrue();
+    }
+
+    @Test
+    public void testFoodIsEatenAndPlacedAgain() {
+        final ArenaEngine arena = newArena();
+        arena.setSnake(0, cells(4, 5, 3, 5, 2, 5), Direction.RIGHT);
+        arena.setSnake(1, cells(9, 9, 9, 10, 9, 11), Direction.UP);
+        arena.setFood(0, PositionUtil.toCell(5, 5));
+
+        arena.step(RIGHT_AND_LEFT, rewards, done);
+
+        assertThat(done).containsExactly(false, false);
+        assertThat(arena.getScore(0)).isEqualTo(1);
+        assertThat(arena.getFoodCell(0)).isNotEqualTo(PositionUtil.toCell(5, 5));
+        assertThat(arena.isOccupied(arena.getFoodCell(0))).isFalse();
+        assertThat(arena.getTargetFoodCell(1)).isEqualTo(arena.getFoodCell(0));
+    }
+
+    private static ArenaEngine newArena() {
+        final ArenaEngine arena = new ArenaEngine(12, 2, 1, new SplittableRandom(123L));
+        arena.setFood(0, PositionUtil.toCell(0, 0));
+        return arena;
+    }
+
+    private static int[] cells(final int... coordinates) {
+        final int[] cells = new int[coordinates.length / 2];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = PositionUtil.toCell(coordinates[2 * i], coordinates[2 * i + 1]);
+        }
+
+        return cells;
+    }
+}
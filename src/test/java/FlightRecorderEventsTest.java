@@ -0,0 +1,53 @@
+import com.lilium.snake.events.EpisodeEndEvent;
+import com.lilium.snake.events.FoodSpawnEvent;
+import com.lilium.snake.game.GameEngine;
+import com.lilium.snake.game.helper.Direction;
+import com.lilium.snake.game.util.PositionUtil;
+import com.lilium.snake.network.Action;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FlightRecorderEventsTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testEpisodeEndAndFoodSpawnAreRecorded() throws IOException {
+        final Path file = directory.resolve("snake.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(EpisodeEndEvent.class);
+            recording.enable(FoodSpawnEvent.class);
+            recording.start();
+
+            // Snake at the top wall heading up dies on the next move, the new episode places food
+            final GameEngine game = new GameEngine(new SplittableRandom(123L));
+            game.setState(new int[]{PositionUtil.toCell(5, 0), PositionUtil.toCell(5, 1), PositionUtil.toCell(5, 2)},
+                    Direction.UP, PositionUtil.toCell(20, 20));
+            game.step(Action.MOVE_UP);
+            game.reset();
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        final List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        final List<RecordedEvent> episodeEnds = events.stream()
+                .filter(event -> event.getEventType().getName().equals("com.lilium.snake.EpisodeEnd"))
+                .collect(Collectors.toList());
+        assertThat(episodeEnds).hasSize(1);
+        assertThat(episodeEnds.get(0).getString("cause")).isEqualTo("WALL");
+        assertThat(episodeEnds.get(0).getInt("length")).isEqualTo(3);
+        assertThat(events).anyMatch(event -> event.getEventType().getName().equals("com.lilium.snake.FoodSpawn"));
+    }
+}
@@ -0,0 +1,59 @@
+import com.lilium.snake.game.GameEngine;
+import com.lilium.snake.network.Action;
+import com.lilium.snake.network.util.NetworkUtil;
+import org.junit.jupiter.api.Test;
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.lang.management.ManagementFactory;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class GameEngineAllocationTest {
+    private static final int WARMUP_STEPS = 500_000;
+    private static final int MEASURED_STEPS = 1_000_000;
+
+    @Test
+    public void testStepPathDoesNotAllocate() {
+        final com.sun.management.ThreadMXBean threadMXBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final GameEngine engine = new GameEngine();
+        final double[] observation = new double[NetworkUtil.NUMBER_OF_INPUTS];
+        final DataBuffer buffer = Nd4j.create(NetworkUtil.DATA_TYPE, 1, NetworkUtil.NUMBER_OF_INPUTS).data();
+        final SplittableRandom random = new SplittableRandom(123L);
+
+        // Warm up so that the step path is compiled
+        runSteps(engine, observation, buffer, random, WARMUP_STEPS);
+
+        final long allocatedBefore = threadMXBean.getCurrentThreadAllocatedBytes();
+        runSteps(engine, observation, buffer, random, MEASURED_STEPS);
+        final long allocated = threadMXBean.getCurrentThreadAllocatedBytes() - allocatedBefore;
+
+        // Allow a few bytes for the measurement itself, a single allocation per step would already be megabytes
+        assertThat(allocated).isLessThan(1024L);
+    }
+
+    private static double runSteps(final GameEngine engine,
+                                   final double[] observation,
+                                   final DataBuffer buffer,
+                                   final SplittableRandom random,
+                                   final int steps) {
+        double checksum = 0;
+        for (int i = 0; i < steps; i++) {
+            final Action action = Action.getActionByIndex(random.nextInt(4));
+            engine.changeDirection(action);
+            engine.move();
+            checksum += engine.calculateRewardForActionToTake(action);
+            engine.buildStateObservation(observation);
+            checksum += observation[0];
+            engine.buildStateObservation(buffer, 0);
+
+            if (!engine.isOngoing()) {
+                engine.reset();
+            }
+        }
+
+        return checksum;
+    }
+}
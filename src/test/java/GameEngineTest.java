@@ -0,0 +1,78 @@
+import com.lilium.snake.game.GameEngine;
+import com.lilium.snake.game.helper.GameOverReason;
+import com.lilium.snake.game.util.GameUtil;
+import com.lilium.snake.game.util.PositionUtil;
+import com.lilium.snake.network.Action;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class GameEngineTest {
+
+    @Test
+    public void testEpisodeIsReplayedFromItsSeed() {
+        final GameEngine game = new GameEngine(new SplittableRandom(123L));
+        final SplittableRandom actions = new SplittableRandom(456L);
+
+        // Play a few episodes so the replayed one does not start from a fresh game
+        for (int i = 0; i < 3; i++) {
+            play(game, actions);
+            game.reset();
+        }
+
+        final long episodeSeed = game.getEpisodeSeed();
+        final long actionSeed = actions.nextLong();
+        final List<Integer> foodCells = play(game, new SplittableRandom(actionSeed));
+
+        final GameEngine replay = new GameEngine(new SplittableRandom(789L));
+        replay.reset(episodeSeed);
+        final List<Integer> replayedFoodCells = play(replay, new SplittableRandom(actionSeed));
+
+        assertThat(replayedFoodCells).isEqualTo(foodCells);
+        assertThat(replay.getSteps()).isEqualTo(game.getSteps());
+        assertThat(replay.getScore()).isEqualTo(game.getScore());
+        assertThat(replay.getGameOverReason()).isEqualTo(game.getGameOverReason());
+    }
+
+    @Test
+    public void testWallDependsOnBoardSize() {
+        for (final int numberOfCells : new int[] {GameUtil.MIN_NUMBER_OF_CELLS, 12, 1000}) {
+            final GameEngine game = new GameEngine(numberOfCells, new SplittableRandom(123L));
+            assertThat(game.getNumberOfCells()).isEqualTo(numberOfCells);
+            assertThat(PositionUtil.getCellX(game.getFoodCell())).isBetween(0, numberOfCells - 1);
+            assertThat(PositionUtil.getCellY(game.getFoodCell())).isBetween(0, numberOfCells - 1);
+
+            // Head starts at x = 5 heading right, food is not on the way only if it is on another row
+            while (game.isOngoing() && PositionUtil.getCellY(game.getFoodCell()) == 5) {
+                game.reset();
+            }
+            while (game.isOngoing()) {
+                game.move();
+            }
+
+            assertThat(game.getGameOverReason()).isEqualTo(GameOverReason.WALL);
+            assertThat(game.getSteps()).isEqualTo(numberOfCells - 5);
+        }
+
+        assertThatThrownBy(() -> new GameEngine(GameUtil.MIN_NUMBER_OF_CELLS - 1, new SplittableRandom(123L)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static List<Integer> play(final GameEngine game, final SplittableRandom actions) {
+        final List<Integer> foodCells = new ArrayList<>();
+        foodCells.add(game.getFoodCell());
+
+        while (game.isOngoing() && game.getSteps() < 10_000) {
+            game.changeDirection(Action.getActionByIndex(actions.nextInt(4)));
+            game.move();
+            foodCells.add(game.getFoodCell());
+        }
+
+        return foodCells;
+    }
+}
@@ -44,4 +44,26 @@ public class GameStateUtilTest {
                 Direction.LEFT)
         ).isEqualTo(-1.0);
     }
+
+    @Test
+    public void testBuildStateObservationWithFoodOnTheLeft() {
+        final Position[] snakePosition = new Position[]{
+                new Position(50, 50),
+                new Position(50, 60),
+                new Position(50, 70)
+        };
+        final Position foodPosition = new Position(10, 50);
+
+        assertThat(GameStateUtil.getStateForDirection(
+                snakePosition,
+                foodPosition,
+                Direction.LEFT)
+        ).isEqualTo(1.0);
+
+        assertThat(GameStateUtil.getStateForDirection(
+                snakePosition,
+                foodPosition,
+                Direction.RIGHT)
+        ).isEqualTo(0.0);
+    }
 }
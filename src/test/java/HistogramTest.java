@@ -0,0 +1,43 @@
+import com.lilium.snake.network.metrics.Histogram;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class HistogramTest {
+    @Test
+    public void testPercentile() {
+        final Histogram histogram = new Histogram();
+        for (long value = 1; value <= 10_000; value++) {
+            histogram.record(value * 1_000);
+        }
+
+        final long[] counts = histogram.getCounts();
+        assertThat(Histogram.getValueAtPercentile(counts, 50)).isBetween(5_000_000L, 5_625_000L);
+        assertThat(Histogram.getValueAtPercentile(counts, 99)).isBetween(9_900_000L, 11_137_500L);
+        assertThat(Histogram.getValueAtPercentile(counts, 100)).isBetween(10_000_000L, 11_250_000L);
+    }
+
+    @Test
+    public void testSmallValues() {
+        final Histogram histogram = new Histogram();
+        for (long value = 0; value < 16; value++) {
+            histogram.record(value);
+        }
+
+        final long[] counts = histogram.getCounts();
+        assertThat(Histogram.getValueAtPercentile(counts, 50)).isEqualTo(7);
+        assertThat(Histogram.getValueAtPercentile(counts, 100)).isEqualTo(15);
+    }
+
+    @Test
+    public void testDifference() {
+        final Histogram histogram = new Histogram();
+        histogram.record(10);
+        final long[] earlier = histogram.getCounts();
+        histogram.record(1_000_000);
+
+        final long[] interval = Histogram.difference(histogram.getCounts(), earlier);
+        assertThat(Histogram.getValueAtPercentile(interval, 1)).isBetween(1_000_000L, 1_125_000L);
+        assertThat(Histogram.getValueAtPercentile(new long[interval.length], 50)).isZero();
+    }
+}
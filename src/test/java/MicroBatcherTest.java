@@ -0,0 +1,72 @@
+import com.lilium.snake.inference.MicroBatcher;
+import com.lilium.snake.network.Action;
+import com.lilium.snake.network.util.NetworkUtil;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class MicroBatcherTest {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final double[] observation = new double[NetworkUtil.NUMBER_OF_INPUTS];
+
+    @Test
+    public void testFullBatchRunsInOnePass() throws Exception {
+        try (MicroBatcher batcher = new MicroBatcher(buildNetwork(Action.MOVE_DOWN), 10 * SECOND, 8)) {
+            final List<CompletableFuture<Integer>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(batcher.submit(observation));
+            }
+
+            // Batch is run as soon as it is full, long before the latency budget is used up
+            for (final CompletableFuture<Integer> future : futures) {
+                assertThat(future.get(5, TimeUnit.SECONDS)).isEqualTo(Action.MOVE_DOWN.ordinal());
+            }
+            assertThat(batcher.getNumberOfBatches()).isEqualTo(1);
+            assertThat(batcher.getAverageBatchSize()).isEqualTo(8);
+        }
+    }
+
+    @Test
+    public void testCloseFailsWaitingAndLaterRequests() {
+        final MicroBatcher batcher = new MicroBatcher(buildNetwork(Action.MOVE_DOWN), 10 * SECOND, 8);
+        final CompletableFuture<Integer> waiting = batcher.submit(observation);
+        batcher.close();
+        final CompletableFuture<Integer> later = batcher.submit(observation);
+
+        assertThatThrownBy(() -> waiting.get(5, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class);
+        assertThatThrownBy(() -> later.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void testSwappedNetworkSelectsTheFollowingActions() throws Exception {
+        final MultiLayerNetwork right = buildNetwork(Action.MOVE_RIGHT);
+        try (MicroBatcher batcher = new MicroBatcher(right, 0, 1)) {
+            assertThat(batcher.submit(observation).get(5, TimeUnit.SECONDS)).isEqualTo(Action.MOVE_RIGHT.ordinal());
+
+            assertThat(batcher.swapNetwork(buildNetwork(Action.MOVE_LEFT))).isSameAs(right);
+            assertThat(batcher.submit(observation).get(5, TimeUnit.SECONDS)).isEqualTo(Action.MOVE_LEFT.ordinal());
+        }
+    }
+
+    private static MultiLayerNetwork buildNetwork(final Action action) {
+        final MultiLayerNetwork network = (MultiLayerNetwork) NetworkUtil.buildDQNFactory()
+                .buildDQN(new int[]{NetworkUtil.NUMBER_OF_INPUTS}, Action.values().length)
+                .getNeuralNetworks()[0];
+
+        // Only the bias of the action is left, so the network selects it for every observation
+        network.params().assign(0);
+        network.getLayer(network.getnLayers() - 1).getParam("b").putScalar(action.ordinal(), 1);
+        return network;
+    }
+}
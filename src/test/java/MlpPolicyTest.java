@@ -0,0 +1,42 @@
+import com.lilium.snake.network.policy.MlpPolicy;
+import com.lilium.snake.network.util.NetworkUtil;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.junit.jupiter.api.Test;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class MlpPolicyTest {
+
+    @Test
+    public void testOutputMatchesNd4j() {
+        for (final DataType dataType : new DataType[] {DataType.FLOAT, DataType.DOUBLE}) {
+            final MultiLayerNetwork network = (MultiLayerNetwork) NetworkUtil.buildDQNFactory(dataType)
+                    .buildDQN(new int[]{NetworkUtil.NUMBER_OF_INPUTS}, 4)
+                    .getNeuralNetworks()[0];
+            final MlpPolicy policy = MlpPolicy.of(network).copy();
+            assertThat(policy.getNumberOfInputs()).isEqualTo(NetworkUtil.NUMBER_OF_INPUTS);
+            assertThat(policy.getNumberOfOutputs()).isEqualTo(4);
+
+            final SplittableRandom random = new SplittableRandom(123L);
+            final double[] observation = new double[NetworkUtil.NUMBER_OF_INPUTS];
+            for (int i = 0; i < 200; i++) {
+                for (int j = 0; j < observation.length; j++) {
+                    observation[j] = i % 2 == 0 ? random.nextInt(3) - 1 : random.nextDouble(-1, 1);
+                }
+
+                final INDArray input = Nd4j.create(observation, new long[]{1, observation.length}, dataType);
+                final double[] expected = network.output(input, false).toDoubleVector();
+                final float[] output = policy.output(observation);
+                for (int j = 0; j < expected.length; j++) {
+                    assertThat((double) output[j]).isCloseTo(expected[j], within(1e-4));
+                }
+            }
+        }
+    }
+}
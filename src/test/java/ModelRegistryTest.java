@@ -0,0 +1,96 @@
+import com.lilium.snake.inference.ModelRegistry;
+import com.lilium.snake.network.util.NetworkUtil;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ModelRegistryTest {
+    @TempDir
+    Path directory;
+
+    private int savedNetworks;
+
+    @Test
+    public void testNetworksAreCachedAndEvicted() throws IOException {
+        final Path first = save("first.zip");
+        final Path second = save("second.zip");
+        final Path cacheDirectory = directory.resolve("cache");
+
+        final ModelRegistry registry = new ModelRegistry(1, cacheDirectory);
+        final ModelRegistry.Model model = registry.getModel(first);
+        assertThat(model.isFromCache()).isFalse();
+        assertThat(registry.get(first)).isSameAs(model.getNetwork());
+        assertThat(listCacheFiles(cacheDirectory, ".params")).hasSize(1);
+
+        // Only one network is kept, so the first one is evicted and loaded again from the cache files
+        registry.get(second);
+        assertThat(registry.size()).isEqualTo(1);
+        final ModelRegistry.Model reloaded = registry.getModel(first);
+        assertThat(reloaded.isFromCache()).isTrue();
+        assertThat(reloaded.getNetwork()).isNotSameAs(model.getNetwork());
+
+        final INDArray input = Nd4j.rand(2, NetworkUtil.NUMBER_OF_INPUTS);
+        assertThat(reloaded.getNetwork().params()).isEqualTo(model.getNetwork().params());
+        assertThat(reloaded.getNetwork().output(input)).isEqualTo(model.getNetwork().output(input));
+    }
+
+    @Test
+    public void testCacheBelongsToTheZip() throws IOException {
+        final Path cacheDirectory = directory.resolve("cache");
+        final Path first = save("run-1/checkpoint-best.zip");
+        final Path second = save("run-2/checkpoint-best.zip");
+
+        // Zips of the same name in different directories do not share the cache
+        final MultiLayerNetwork firstNetwork = new ModelRegistry(2, cacheDirectory).get(first);
+        final ModelRegistry.Model secondModel = new ModelRegistry(2, cacheDirectory).getModel(second);
+        assertThat(secondModel.isFromCache()).isFalse();
+        assertThat(secondModel.getNetwork().params()).isNotEqualTo(firstNetwork.params());
+        assertThat(listCacheFiles(cacheDirectory, ".params")).hasSize(2);
+
+        // Zip overwritten by another network is loaded from the zip again
+        final FileTime modified = Files.getLastModifiedTime(first);
+        final MultiLayerNetwork overwritten = saveNetwork("run-1/checkpoint-best.zip");
+        Files.setLastModifiedTime(first, FileTime.fromMillis(modified.toMillis() + 1000));
+        final ModelRegistry.Model reloaded = new ModelRegistry(2, cacheDirectory).getModel(first);
+        assertThat(reloaded.isFromCache()).isFalse();
+        assertThat(reloaded.getNetwork().params()).isEqualTo(overwritten.params());
+        assertThat(new ModelRegistry(2, cacheDirectory).getModel(first).isFromCache()).isTrue();
+    }
+
+    private static List<Path> listCacheFiles(final Path cacheDirectory, final String extension) throws IOException {
+        try (Stream<Path> files = Files.list(cacheDirectory)) {
+            return files.filter(file -> file.toString().endsWith(extension)).collect(Collectors.toList());
+        }
+    }
+
+    private Path save(final String name) throws IOException {
+        saveNetwork(name);
+        return directory.resolve(name);
+    }
+
+    private MultiLayerNetwork saveNetwork(final String name) throws IOException {
+        final MultiLayerNetwork network = (MultiLayerNetwork) NetworkUtil.buildDQNFactory()
+                .buildDQN(new int[]{NetworkUtil.NUMBER_OF_INPUTS}, 4)
+                .getNeuralNetworks()[0];
+        // Building a network resets the random generator to the same seed, so every saved network gets its own seed
+        Nd4j.getRandom().setSeed(++savedNetworks);
+        network.setParams(Nd4j.rand(network.params().dataType(), network.params().shape()));
+
+        final Path file = directory.resolve(name);
+        Files.createDirectories(file.getParent());
+        network.save(file.toFile());
+        return network;
+    }
+}
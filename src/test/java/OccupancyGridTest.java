@@ -0,0 +1,94 @@
+import com.lilium.snake.game.helper.OccupancyGrid;
+import com.lilium.snake.game.helper.Ray;
+import com.lilium.snake.game.util.GameUtil;
+import com.lilium.snake.game.util.PositionUtil;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class OccupancyGridTest {
+
+    @Test
+    public void testFreeCells() {
+        final OccupancyGrid grid = new OccupancyGrid();
+        final int numberOfCells = GameUtil.DEFAULT_NUMBER_OF_CELLS;
+        final int lastCell = PositionUtil.toCell(numberOfCells - 1, numberOfCells - 1);
+
+        // Occupy every cell except the last one
+        for (int x = 0; x < numberOfCells; x++) {
+            for (int y = 0; y < numberOfCells; y++) {
+                final int cell = PositionUtil.toCell(x, y);
+                if (cell != lastCell) {
+                    grid.occupy(cell);
+                }
+            }
+        }
+
+        assertThat(grid.getFreeCellCount()).isEqualTo(1);
+        assertThat(grid.getFreeCell(0)).isEqualTo(lastCell);
+
+        // Cell occupied twice becomes free only after both parts are released
+        final int cell = PositionUtil.toCell(3, 4);
+        grid.occupy(cell);
+        grid.release(cell);
+        assertThat(grid.getFreeCellCount()).isEqualTo(1);
+        grid.release(cell);
+        assertThat(grid.getFreeCellCount()).isEqualTo(2);
+
+        grid.occupy(lastCell);
+        assertThat(grid.getFreeCell(0)).isEqualTo(cell);
+
+        grid.occupy(cell);
+        assertThat(grid.getFreeCellCount()).isEqualTo(0);
+        assertThatThrownBy(() -> grid.getFreeCell(0)).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @Test
+    public void testDistanceToOccupied() {
+        // Smallest board, default board and a board whose lines take more than one mask word
+        testDistanceToOccupied(GameUtil.MIN_NUMBER_OF_CELLS);
+        testDistanceToOccupied(GameUtil.DEFAULT_NUMBER_OF_CELLS);
+        testDistanceToOccupied(150);
+    }
+
+    private static void testDistanceToOccupied(final int numberOfCells) {
+        final OccupancyGrid grid = new OccupancyGrid(numberOfCells);
+        final SplittableRandom random = new SplittableRandom(123L);
+
+        // Occupy and release random cells, then compare every ray with walking the cells one by one
+        for (int i = 0; i < 20 * numberOfCells; i++) {
+            final int cell = PositionUtil.toCell(random.nextInt(numberOfCells), random.nextInt(numberOfCells));
+            if (grid.isOccupied(cell) && random.nextBoolean()) {
+                grid.release(cell);
+            } else {
+                grid.occupy(cell);
+            }
+
+            final int from = PositionUtil.toCell(random.nextInt(numberOfCells), random.nextInt(numberOfCells));
+            for (final Ray ray : Ray.values()) {
+                assertThat(grid.getDistanceToOccupied(from, ray)).isEqualTo(walk(grid, from, ray));
+            }
+        }
+    }
+
+    private static int walk(final OccupancyGrid grid, final int from, final Ray ray) {
+        int x = PositionUtil.getCellX(from);
+        int y = PositionUtil.getCellY(from);
+        for (int distance = 1; ; distance++) {
+            x += ray.getDx();
+            y += ray.getDy();
+
+            final int cell = PositionUtil.toCell(x, y);
+            if (grid.isOutsideTheGameBounds(cell)) {
+                return 0;
+            }
+
+            if (grid.isOccupied(cell)) {
+                return distance;
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+import com.lilium.snake.network.PackedExperienceHandler;
+import org.deeplearning4j.rl4j.learning.sync.Transition;
+import org.deeplearning4j.rl4j.observation.Observation;
+import org.junit.jupiter.api.Test;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PackedExperienceHandlerTest {
+
+    @Test
+    public void testTransitionsAreStoredAndSampled() {
+        final PackedExperienceHandler handler = new PackedExperienceHandler(2, 8, 4, 123L);
+
+        handler.addExperience(observation(-1, 0, 1, 0), 1, 0.5, false);
+        handler.addExperience(observation(1, 1, -1, -1), 2, -1, true);
+        handler.setFinalObservation(observation(0, 0, 0, 1));
+
+        assertThat(handler.size()).isEqualTo(2);
+        assertThat(handler.getTrainingBatchSize()).isEqualTo(2);
+
+        final List<Transition<Integer>> transitions = handler.generateTrainingBatch();
+        for (final Transition<Integer> transition : transitions) {
+            if (transition.getAction() == 1) {
+                assertThat(transition.getObservation().getData().toDoubleVector()).containsExactly(-1, 0, 1, 0);
+                assertThat(transition.getNextObservation().toDoubleVector()).containsExactly(1, 1, -1, -1);
+                assertThat(transition.getReward()).isEqualTo(0.5);
+                assertThat(transition.isTerminal()).isFalse();
+            } else {
+                assertThat(transition.getAction()).isEqualTo(2);
+                assertThat(transition.getObservation().getData().toDoubleVector()).containsExactly(1, 1, -1, -1);
+                assertThat(transition.getNextObservation().toDoubleVector()).containsExactly(0, 0, 0, 1);
+                assertThat(transition.getReward()).isEqualTo(-1);
+                assertThat(transition.isTerminal()).isTrue();
+            }
+        }
+
+        // Capacity is 2, so the first transition is overwritten
+        handler.reset();
+        handler.addExperience(observation(0, 0, 0, 0), 3, 1, false);
+        handler.setFinalObservation(observation(1, 0, 0, 0));
+        assertThat(handler.size()).isEqualTo(2);
+
+        final int numberOfTransitions = handler.sampleBatch();
+        for (int i = 0; i < numberOfTransitions; i++) {
+            assertThat(handler.getAction(handler.getSampledIndex(i))).isIn(2, 3);
+        }
+    }
+
+    @Test
+    public void testStateIsRestored() {
+        final PackedExperienceHandler handler = new PackedExperienceHandler(4, 8, 4, 123L);
+        handler.addExperience(observation(-1, 0, 1, 0), 1, 0.5, true);
+        handler.setFinalObservation(observation(1, 1, -1, -1));
+        final PackedExperienceHandler.State state = handler.getState();
+
+        // Changes after the copy must not show up in it
+        handler.reset();
+        handler.addExperience(observation(0, 0, 0, 0), 3, 1, false);
+        handler.setFinalObservation(observation(1, 0, 0, 0));
+
+        final PackedExperienceHandler restored = new PackedExperienceHandler(4, 8, 4, 321L);
+        restored.restore(state);
+        assertThat(restored.size()).isEqualTo(1);
+        assertThat(restored.sampleBatch()).isEqualTo(1);
+        assertThat(restored.getAction(restored.getSampledIndex(0))).isEqualTo(1);
+        assertThat(restored.isTerminal(restored.getSampledIndex(0))).isTrue();
+        assertThat(restored.getBatchNextObservations().getRow(0).toDoubleVector()).containsExactly(1, 1, -1, -1);
+    }
+
+    private static Observation observation(final double... values) {
+        return new Observation(Nd4j.create(values).reshape(1, values.length));
+    }
+}
@@ -0,0 +1,40 @@
+import com.lilium.snake.network.GameObservationSpace;
+import com.lilium.snake.network.policy.NetworkPolicy;
+import com.lilium.snake.network.policy.PolicyTable;
+import com.lilium.snake.network.util.NetworkUtil;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PolicyTableTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testTableSelectsTheActionsOfTheNetwork() throws IOException {
+        final GameObservationSpace observationSpace = new GameObservationSpace();
+        Assumptions.assumeTrue(observationSpace.isFinite());
+
+        final MultiLayerNetwork network = (MultiLayerNetwork) NetworkUtil.buildDQNFactory()
+                .buildDQN(new int[]{NetworkUtil.NUMBER_OF_INPUTS}, 4)
+                .getNeuralNetworks()[0];
+        final Path file = directory.resolve("network" + PolicyTable.FILE_EXTENSION);
+        PolicyTable.compile(network).save(file);
+        final PolicyTable table = PolicyTable.load(file);
+
+        final NetworkPolicy networkPolicy = new NetworkPolicy(network);
+        final double[] observation = new double[NetworkUtil.NUMBER_OF_INPUTS];
+        assertThat(table.getNumberOfObservations()).isEqualTo(81);
+        for (int i = 0; i < table.getNumberOfObservations(); i++) {
+            observationSpace.getObservation(i, observation);
+            assertThat(observationSpace.getIndex(observation)).isEqualTo(i);
+            assertThat(table.selectAction(observation)).isEqualTo(networkPolicy.selectAction(observation));
+        }
+    }
+}
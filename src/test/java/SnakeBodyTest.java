@@ -0,0 +1,65 @@
+import com.lilium.snake.game.helper.SnakeBody;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class SnakeBodyTest {
+
+    @Test
+    public void testPartsWrapAroundTheBuffer() {
+        final SnakeBody body = new SnakeBody(4);
+
+        // Moving a snake of 3 parts ten times wraps the head and the tail around the end of the buffer several times
+        for (int cell = 0; cell < 3; cell++) {
+            body.addFirst(cell);
+        }
+        for (int cell = 3; cell < 13; cell++) {
+            body.addFirst(cell);
+            assertThat(body.removeLast()).isEqualTo(cell - 3);
+
+            assertThat(body.size()).isEqualTo(3);
+            assertThat(body.getFirst()).isEqualTo(cell);
+            assertThat(body.get(1)).isEqualTo(cell - 1);
+            assertThat(body.getLast()).isEqualTo(cell - 2);
+        }
+
+        assertThatThrownBy(() -> body.get(3)).isInstanceOf(IndexOutOfBoundsException.class);
+        assertThatThrownBy(() -> body.get(-1)).isInstanceOf(IndexOutOfBoundsException.class);
+
+        body.clear();
+        assertThat(body.size()).isZero();
+        assertThatThrownBy(body::removeLast).isInstanceOf(IllegalStateException.class);
+
+        body.addFirst(42);
+        assertThat(body.getFirst()).isEqualTo(42);
+        assertThat(body.getLast()).isEqualTo(42);
+    }
+
+    @Test
+    public void testBufferGrowsUpToTheMaxCapacity() {
+        final SnakeBody body = new SnakeBody(2, 5);
+
+        // Wrap around first, so that growing has to unroll the parts into head-first ordering
+        body.addFirst(0);
+        body.addFirst(1);
+        assertThat(body.removeLast()).isEqualTo(0);
+        for (int cell = 2; cell < 6; cell++) {
+            body.addFirst(cell);
+        }
+
+        assertThat(body.size()).isEqualTo(5);
+        for (int i = 0; i < body.size(); i++) {
+            assertThat(body.get(i)).isEqualTo(5 - i);
+        }
+
+        assertThatThrownBy(() -> body.addFirst(6)).isInstanceOf(IllegalStateException.class);
+        assertThat(body.size()).isEqualTo(5);
+
+        // Full body keeps working as a ring buffer
+        assertThat(body.removeLast()).isEqualTo(1);
+        body.addFirst(6);
+        assertThat(body.getFirst()).isEqualTo(6);
+        assertThat(body.getLast()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,22 @@
+import com.lilium.snake.evaluation.util.StatisticsUtil;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StatisticsUtilTest {
+    @Test
+    public void testPercentile() {
+        final int[] values = new int[100];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i + 1;
+        }
+
+        assertThat(StatisticsUtil.percentile(values, 50)).isEqualTo(50);
+        assertThat(StatisticsUtil.percentile(values, 95)).isEqualTo(95);
+        assertThat(StatisticsUtil.percentile(values, 99)).isEqualTo(99);
+        assertThat(StatisticsUtil.percentile(values, 100)).isEqualTo(100);
+        assertThat(StatisticsUtil.percentile(values, 0)).isEqualTo(1);
+        assertThat(StatisticsUtil.percentile(new int[0], 50)).isEqualTo(0);
+        assertThat(StatisticsUtil.mean(values)).isEqualTo(50.5);
+    }
+}
@@ -0,0 +1,52 @@
+import com.lilium.snake.evaluation.EvaluationResult;
+import com.lilium.snake.evaluation.Evaluator;
+import com.lilium.snake.network.GameObservationSpace;
+import com.lilium.snake.network.policy.PolicyTable;
+import com.lilium.snake.network.tabular.TabularAlgorithm;
+import com.lilium.snake.network.tabular.TabularTrainer;
+import com.lilium.snake.network.util.NetworkUtil;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TabularTrainerTest {
+    @BeforeEach
+    public void setUp() {
+        Assumptions.assumeTrue(new GameObservationSpace().isFinite());
+    }
+
+    @Test
+    public void testQLearningLearnsToEat() {
+        final TabularTrainer trainer = new TabularTrainer(NetworkUtil.buildConfig(), TabularAlgorithm.Q_LEARNING, 0.1);
+        trainer.train(NetworkUtil.buildConfig().getMaxStep());
+        assertThat(trainer.getSteps()).isEqualTo(NetworkUtil.buildConfig().getMaxStep());
+        assertThat(trainer.getEpsilon()).isEqualTo(NetworkUtil.buildConfig().getMinEpsilon());
+
+        final PolicyTable table = trainer.toPolicyTable();
+        final EvaluationResult result = new Evaluator(() -> table, 1, 1000, 123L).evaluate(100);
+
+        // Random moves hardly ever eat, the learned table eats a lot
+        assertThat(result.getMeanScore()).isGreaterThan(10);
+    }
+
+    @Test
+    public void testTrainingIsReproducible() {
+        final PolicyTable first = train(TabularAlgorithm.SARSA);
+        final PolicyTable second = train(TabularAlgorithm.SARSA);
+
+        for (int i = 0; i < first.getNumberOfObservations(); i++) {
+            assertThat(second.getAction(i)).isEqualTo(first.getAction(i));
+            for (int j = 0; j < first.getNumberOfActions(); j++) {
+                assertThat(second.getQValue(i, j)).isEqualTo(first.getQValue(i, j));
+            }
+        }
+    }
+
+    private static PolicyTable train(final TabularAlgorithm algorithm) {
+        final TabularTrainer trainer = new TabularTrainer(NetworkUtil.buildConfig(), algorithm, 0.1);
+        trainer.train(5000);
+        return trainer.toPolicyTable();
+    }
+}